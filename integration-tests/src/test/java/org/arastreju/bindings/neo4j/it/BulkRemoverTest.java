@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.BulkRemover;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.query.NeoQueryBuilder;
+import org.arastreju.bindings.neo4j.query.NeoQueryResult;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.Query;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for the removal of many resources at once.
+ * </p>
+ */
+public class BulkRemoverTest {
+
+	private static final int COUNT = 25;
+
+	private final ResourceID owns = new SimpleResourceID("http://q#", "owns");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testRemoveStreamedQueryHits() throws Exception {
+		for (int i = 0; i < COUNT; i++) {
+			createWithName(qn("Bulk" + i), "Bulk");
+		}
+		createWithName(qn("Other"), "Other");
+
+		final Query query = new NeoQueryBuilder(new ResourceIndex(connection, ctx));
+		query.addValue("Bulk");
+		final NeoQueryResult result = (NeoQueryResult) query.getResult();
+		final long removed;
+		try {
+			// batches smaller than the result, so hits are read across several transactions
+			removed = new BulkRemover(ctx, 10).removeAll(result.ids());
+		} finally {
+			result.close();
+		}
+		assertEquals(COUNT, removed);
+
+		final ResourceIndex index = ctx.getResourceIndex();
+		for (int i = 0; i < COUNT; i++) {
+			assertNull(index.findNeoNode(qn("Bulk" + i)));
+		}
+		assertNotNull(index.findNeoNode(qn("Other")));
+		assertTrue(index.lookup(Aras.HAS_PROPER_NAME, "Bulk").isEmpty());
+	}
+
+	@Test
+	public void testReferencesToRemovedResourceAreRetracted() throws Exception {
+		final ResourceNode bike = createWithName(qn("Bike"), "Bike");
+		final ResourceNode car = new SNResource(qn("Car"));
+		SNOPS.associate(car, owns, bike);
+		sna.attach(car);
+
+		assertEquals(1, sna.removeAll(Collections.singleton(bike)));
+
+		assertTrue(SNOPS.objects(car, owns).isEmpty());
+		assertTrue(ctx.getResourceIndex().lookup(owns, bike).isEmpty());
+		assertNull(ctx.getResourceIndex().findNeoNode(qn("Bike")));
+	}
+
+	// -----------------------------------------------------
+
+	private ResourceNode createWithName(QualifiedName qn, String name) {
+		final ResourceNode node = new SNResource(qn);
+		SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText(name));
+		sna.attach(node);
+		return node;
+	}
+
+	private QualifiedName qn(String name) {
+		return new QualifiedName("http://q#", name);
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for concurrent reads in one conversation.
+ * </p>
+ */
+public class ConcurrentReadTest {
+
+	private static final int THREADS = 8;
+
+	private static final int VALUES = 200;
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private NeoResourceResolver resolver;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		resolver = new NeoResourceResolver(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testConcurrentReadsWhileResolving() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		for (int i = 0; i < VALUES; i++) {
+			SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Car " + i));
+		}
+		sna.attach(car);
+		sna.detach(car);
+
+		// not yet resolved, all threads start reading at once
+		final ResourceNode found = resolver.findResource(qnCar);
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						start.await();
+						return found.getAssociations().size();
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(VALUES, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testIterationWhileResolvingAndChanging() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		for (int i = 0; i < VALUES; i++) {
+			SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Car " + i));
+		}
+		sna.attach(car);
+		sna.detach(car);
+
+		// readers iterate while the keeper is resolved and a writer adds statements
+		final ResourceNode found = resolver.findResource(qnCar);
+		final NeoAssociationKeeper keeper = ctx.getAssociationKeeper(qnCar);
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						start.await();
+						int count = 0;
+						for (int round = 0; round < 20; round++) {
+							for (Statement stmt : found.getAssociations()) {
+								if (stmt.getObject().isValueNode()) {
+									count++;
+								}
+							}
+						}
+						return count;
+					}
+				}));
+			}
+			final Future<?> writer = executor.submit(new Callable<Object>() {
+				public Object call() throws Exception {
+					start.await();
+					for (int i = 0; i < VALUES; i++) {
+						final Statement stmt = SNOPS.associate(new SNResource(qnCar), Aras.HAS_BRAND_NAME, new SNText("Brand " + i));
+						ctx.applyChanges(keeper, Collections.singleton(stmt), Collections.<Statement>emptySet());
+					}
+					return null;
+				}
+			});
+			start.countDown();
+			writer.get();
+			for (Future<Integer> result : results) {
+				// each round sees at least the resolved statements
+				assertTrue(result.get() >= 20 * VALUES);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(2 * VALUES, found.getAssociations().size());
+	}
+
+	@Test
+	public void testConcurrentFindOfSameResource() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		for (int i = 0; i < VALUES; i++) {
+			SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Car " + i));
+		}
+		sna.attach(car);
+		sna.detach(car);
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						start.await();
+						return resolver.findResource(qnCar).getAssociations().size();
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(VALUES, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for the cached contexts of a conversation, when a context resource is removed.
+ * </p>
+ */
+public class ContextCacheTest {
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoConversationContext reader;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		reader = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		ctx.setPrimaryContext(ctx1);
+		ctx.setReadContexts(ctx1);
+		reader.setReadContexts(ctx1);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		reader.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testContextRemovedAfterReading() throws Exception {
+		createCar();
+		// read the statements, so the context is cached
+		sna.detach(findCar(ctx));
+		assertContextsAttached(findCar(ctx));
+
+		sna.remove(ctx1);
+		addName("Knut");
+		assertNotNull(new NeoResourceResolver(connection, ctx).findResource(ctx1.getQualifiedName()));
+
+		sna.detach(findCar(ctx));
+		assertContextsAttached(findCar(ctx));
+	}
+
+	@Test
+	public void testContextRemovedBeforeReading() throws Exception {
+		createCar();
+		sna.remove(ctx1);
+
+		// the context assigned to the new statement is created again
+		addName("Knut");
+		assertNotNull(new NeoResourceResolver(connection, ctx).findResource(ctx1.getQualifiedName()));
+
+		final ResourceNode car = findCar(reader);
+		assertEquals(2, car.getAssociations().size());
+		assertContextsAttached(car);
+	}
+
+	// -----------------------------------------------------
+
+	private void createCar() {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_BRAND_NAME, new SNText("BMW"));
+		sna.attach(car);
+	}
+
+	private void addName(String name) {
+		final Statement stmt = SNOPS.associate(new SNResource(qnCar), Aras.HAS_PROPER_NAME, new SNText(name));
+		ctx.applyChanges(ctx.getAssociationKeeper(qnCar), Collections.singleton(stmt),
+				Collections.<Statement>emptySet());
+	}
+
+	private ResourceNode findCar(NeoConversationContext conversation) {
+		return new NeoResourceResolver(connection, conversation).findResource(qnCar);
+	}
+
+	private void assertContextsAttached(ResourceNode node) {
+		assertFalse(node.getAssociations().isEmpty());
+		for (Statement stmt : node.getAssociations()) {
+			for (Context context : stmt.getContexts()) {
+				assertTrue(context instanceof ResourceNode);
+				assertTrue(((ResourceNode) context).isAttached());
+			}
+		}
+	}
+
+}
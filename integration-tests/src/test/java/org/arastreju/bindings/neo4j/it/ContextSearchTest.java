@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.index.lucene.QueryContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for searches over the indexes of several contexts.
+ * </p>
+ */
+public class ContextSearchTest {
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+	private final SimpleContextID ctx2 = new SimpleContextID("http://q/ctx#", "ctx2");
+	private final SimpleContextID ctx3 = new SimpleContextID("http://q/ctx#", "ctx3");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoConversationContext reader;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		reader = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		reader.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testSortedSearchOverSeveralContexts() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		createWithName("B", "b");
+		createWithName("D", "d");
+		ctx.setPrimaryContext(ctx2);
+		createWithName("C", "c");
+		createWithName("A", "a");
+
+		reader.setReadContexts(ctx1, ctx2);
+		final QueryContext query = new QueryContext(new MatchAllDocsQuery()).sort(SNOPS.uri(Aras.HAS_PROPER_NAME));
+		final List<String> names = new ArrayList<String>();
+		for (ResourceNode node : new ResourceIndex(connection, reader).search(query).toList()) {
+			names.add(node.getQualifiedName().toURI());
+		}
+		assertEquals(Arrays.asList("http://q#A", "http://q#B", "http://q#C", "http://q#D"), names);
+	}
+
+	@Test
+	public void testSortedSearchByValuesOfTheIndexedContexts() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		createWithName("X", "z");
+		createWithName("Y", "m");
+		ctx.setPrimaryContext(ctx2);
+		createWithName("W", "b");
+		ctx.setPrimaryContext(ctx3);
+		addName("X", "a");
+
+		// the value in ctx3 is not read
+		reader.setReadContexts(ctx1, ctx2);
+		assertEquals(Arrays.asList("http://q#W", "http://q#Y", "http://q#X"), searchSortedByName());
+
+		// the smaller value in ctx2 puts X first
+		ctx.setPrimaryContext(ctx2);
+		addName("X", "a");
+		assertEquals(Arrays.asList("http://q#X", "http://q#W", "http://q#Y"), searchSortedByName());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSortedSearchByDerivedKeyIsRejected() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		createWithName("A", "a");
+		ctx.setPrimaryContext(ctx2);
+		createWithName("B", "b");
+
+		reader.setReadContexts(ctx1, ctx2);
+		final QueryContext query = new QueryContext(new MatchAllDocsQuery()).sort(NeoIndex.INDEX_KEY_RESOURCE_VALUE);
+		new ResourceIndex(connection, reader).search(query);
+	}
+
+	@Test
+	public void testSearchDoesNotCreateIndexes() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		createWithName("A", "a");
+
+		reader.setReadContexts(ctx1, ctx3);
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(Aras.HAS_PROPER_NAME, "a").size());
+
+		final IndexRegistry registry = new IndexRegistry(store.getIndexManager());
+		assertTrue(store.getIndexManager().existsForNodes(registry.getContextIndexName(ctx1.toURI())));
+		assertFalse(store.getIndexManager().existsForNodes(registry.getContextIndexName(ctx3.toURI())));
+	}
+
+	// -----------------------------------------------------
+
+	private List<String> searchSortedByName() {
+		final QueryContext query = new QueryContext(new MatchAllDocsQuery()).sort(SNOPS.uri(Aras.HAS_PROPER_NAME));
+		final List<String> names = new ArrayList<String>();
+		for (ResourceNode node : new ResourceIndex(connection, reader).search(query).toList()) {
+			names.add(node.getQualifiedName().toURI());
+		}
+		return names;
+	}
+
+	private void addName(String name, String value) {
+		final QualifiedName qn = new QualifiedName("http://q#", name);
+		final Statement stmt = SNOPS.associate(new SNResource(qn), Aras.HAS_PROPER_NAME, new SNText(value));
+		ctx.applyChanges(ctx.getAssociationKeeper(qn), Collections.singleton(stmt), Collections.<Statement>emptySet());
+	}
+
+	private void createWithName(String name, String value) {
+		final ResourceNode node = new SNResource(new QualifiedName("http://q#", name));
+		SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText(value));
+		sna.attach(node);
+	}
+
+}
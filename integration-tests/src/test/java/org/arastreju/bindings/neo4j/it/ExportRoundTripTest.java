@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.io.RdfExportFormat;
+import org.arastreju.bindings.neo4j.io.StreamingRdfExporter;
+import org.arastreju.bindings.neo4j.io.StreamingRdfImporter;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for streaming a store's statements out and into another store.
+ * </p>
+ */
+public class ExportRoundTripTest {
+
+	private final ResourceID owns = new SimpleResourceID("http://q#", "owns");
+
+	private GraphDataStore source;
+	private GraphDataStore target;
+	private GraphDataConnection sourceConnection;
+	private GraphDataConnection targetConnection;
+	private NeoConversationContext sourceCtx;
+	private NeoConversationContext targetCtx;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		source = new GraphDataStore();
+		sourceConnection = new GraphDataConnection(source);
+		sourceCtx = new NeoConversationContext(sourceConnection);
+		target = new GraphDataStore();
+		targetConnection = new GraphDataConnection(target);
+		targetCtx = new NeoConversationContext(targetConnection);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		sourceConnection.close();
+		sourceCtx.close();
+		source.close();
+		targetConnection.close();
+		targetCtx.close();
+		target.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testNTriplesRoundTrip() throws Exception {
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(sourceConnection, sourceCtx);
+		final ResourceNode bike = new SNResource(new QualifiedName("http://q#", "Bike"));
+		SNOPS.associate(bike, Aras.HAS_PROPER_NAME, new SNText("Fahrrad mit \u00e4"));
+		sna.attach(bike);
+		final ResourceNode car = new SNResource(new QualifiedName("http://q#", "Car"));
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("BMW"));
+		SNOPS.associate(car, Aras.HAS_BRAND_NAME, new SNText("quoted \"name\"\nand\ttabs \\ backslash"));
+		SNOPS.associate(car, owns, bike);
+		sna.attach(car);
+
+		final byte[] exported = export(source);
+		final List<String> lines = sortedLines(exported);
+		assertTrue(lines.size() >= 4);
+
+		final long committed = new StreamingRdfImporter(targetCtx, 2)
+				.importStatements(new ByteArrayInputStream(exported), 0);
+		assertEquals(lines.size(), committed);
+
+		assertEquals(lines, sortedLines(export(target)));
+	}
+
+	@Test
+	public void testEmptyStore() throws Exception {
+		assertEquals(0, export(source).length);
+	}
+
+	// -----------------------------------------------------
+
+	private byte[] export(GraphDataStore store) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StreamingRdfExporter(store.getGdbService()).export(out, RdfExportFormat.N_TRIPLES);
+		return out.toByteArray();
+	}
+
+	private List<String> sortedLines(byte[] data) throws Exception {
+		final String text = new String(data, "UTF-8");
+		if (text.length() == 0) {
+			return Collections.emptyList();
+		}
+		final List<String> lines = Arrays.asList(text.split("\n"));
+		Collections.sort(lines);
+		return lines;
+	}
+
+}
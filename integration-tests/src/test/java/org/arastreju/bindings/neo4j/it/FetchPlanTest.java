@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.FetchPlan;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoAssocKeeperAccess;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for eager loading by fetch plans. The graph is a cycle A - B - C - D - A of 'knows'
+ *  references, A is typed. A fetched node is told by its statements still being readable after
+ *  they have been deleted from the graph.
+ * </p>
+ */
+public class FetchPlanTest {
+
+	private final ResourceID knows = new SimpleResourceID("http://q#", "knows");
+
+	private final QualifiedName qnA = new QualifiedName("http://q#", "A");
+	private final QualifiedName qnB = new QualifiedName("http://q#", "B");
+	private final QualifiedName qnC = new QualifiedName("http://q#", "C");
+	private final QualifiedName qnD = new QualifiedName("http://q#", "D");
+	private final QualifiedName qnType = new QualifiedName("http://q#", "Person");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoResourceResolver resolver;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		resolver = new NeoResourceResolver(connection, ctx);
+
+		final ResourceNode type = named(qnType);
+		final ResourceNode a = named(qnA);
+		final ResourceNode b = named(qnB);
+		final ResourceNode c = named(qnC);
+		final ResourceNode d = named(qnD);
+		SNOPS.associate(a, RDF.TYPE, type);
+		SNOPS.associate(a, knows, b);
+		SNOPS.associate(b, knows, c);
+		SNOPS.associate(c, knows, d);
+		SNOPS.associate(d, knows, a);
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(connection, ctx);
+		final ResourceNode[] all = new ResourceNode[] { a, b, c, d, type };
+		for (ResourceNode node : all) {
+			sna.attach(node);
+		}
+		// found again unresolved
+		for (ResourceNode node : all) {
+			sna.detach(node);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testDepthZeroFetchesOnlyTheResource() throws Exception {
+		resolver.findResource(qnA, FetchPlan.depth(0));
+		deleteStatements();
+		assertFetched(qnA);
+		assertNotFetched(qnB);
+		assertNotFetched(qnType);
+	}
+
+	@Test
+	public void testDepthLimitsTheHops() throws Exception {
+		resolver.findResource(qnA, FetchPlan.depth(2));
+		deleteStatements();
+		assertFetched(qnA);
+		assertFetched(qnB);
+		assertFetched(qnC);
+		assertFetched(qnType);
+		assertNotFetched(qnD);
+	}
+
+	@Test
+	public void testCycleIsFetchedOnce() throws Exception {
+		final ResourceNode a = resolver.findResource(qnA, FetchPlan.depth(10));
+		assertTrue(a.isAttached());
+		deleteStatements();
+		assertFetched(qnA);
+		assertFetched(qnB);
+		assertFetched(qnC);
+		assertFetched(qnD);
+	}
+
+	@Test
+	public void testPathFollowsOnlyItsPredicates() throws Exception {
+		resolver.findResource(qnA, FetchPlan.path(RDF.TYPE));
+		deleteStatements();
+		assertFetched(qnA);
+		assertFetched(qnType);
+		assertNotFetched(qnB);
+	}
+
+	@Test
+	public void testUnknownResourceIsNotFound() throws Exception {
+		assertNull(resolver.findResource(new QualifiedName("http://q#", "X"), FetchPlan.depth(3)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeDepthIsRejected() throws Exception {
+		FetchPlan.depth(-1);
+	}
+
+	// -----------------------------------------------------
+
+	private ResourceNode named(QualifiedName qn) {
+		final ResourceNode node = new SNResource(qn);
+		SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText(qn.toURI()));
+		return node;
+	}
+
+	private void assertFetched(QualifiedName qn) {
+		assertFalse(qn.toURI(), resolver.findResource(qn).getAssociations().isEmpty());
+	}
+
+	private void assertNotFetched(QualifiedName qn) {
+		assertTrue(qn.toURI(), resolver.findResource(qn).getAssociations().isEmpty());
+	}
+
+	/**
+	 * Delete the outgoing relationships of all nodes in the graph, bypassing the conversation.
+	 */
+	private void deleteStatements() {
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			for (QualifiedName qn : new QualifiedName[] { qnA, qnB, qnC, qnD, qnType }) {
+				final ResourceNode node = resolver.findResource(qn);
+				for (Relationship rel : NeoAssocKeeperAccess.getNeoNode(node).getRelationships(Direction.OUTGOING)) {
+					rel.delete();
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+	}
+
+}
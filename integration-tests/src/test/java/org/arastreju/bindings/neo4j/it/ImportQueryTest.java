@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.Neo4jGate;
+import org.arastreju.bindings.neo4j.NeoOrganizer;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.context.PhysicalDomain;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.arastreju.sge.SNOPS.associations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for querying statements imported by the streaming importer.
+ * </p>
+ */
+public class ImportQueryTest {
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+	private final QualifiedName qnCtx = new QualifiedName("http://q#", "Ctx1");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private Neo4jGate gate;
+	private NeoOrganizer organizer;
+	private NeoConversationContext ctx;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		gate = new Neo4jGate(new PhysicalDomain("test"), connection);
+		organizer = new NeoOrganizer(connection, gate);
+		ctx = new NeoConversationContext(connection);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ctx.close();
+		connection.close();
+		gate.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testQueryImportedQuadsByContext() throws Exception {
+		final String name = "<" + SNOPS.uri(Aras.HAS_PROPER_NAME) + ">";
+		final String data = "<http://q#Car> " + name + " \"BMW\" <http://q#Ctx1> .\n"
+				+ "<http://q#Bike> " + name + " \"Rad\" .\n";
+		assertEquals(2, organizer.importStatements(new ByteArrayInputStream(data.getBytes("UTF-8")), 0));
+
+		// the context has been created like a registered one
+		Context imported = null;
+		for (Context context : organizer.getContexts()) {
+			if (qnCtx.equals(context.getQualifiedName())) {
+				imported = context;
+			}
+		}
+		assertNotNull(imported);
+
+		// without read contexts only the triple is found
+		final ResourceIndex plainIndex = new ResourceIndex(connection, ctx);
+		assertEquals(1, plainIndex.lookup(Aras.HAS_PROPER_NAME, "Rad").size());
+		assertTrue(plainIndex.lookup(Aras.HAS_PROPER_NAME, "BMW").isEmpty());
+
+		final NeoConversationContext reading = new NeoConversationContext(connection);
+		try {
+			reading.setReadContexts(imported);
+			final ResourceIndex contextIndex = new ResourceIndex(connection, reading);
+			assertEquals(1, contextIndex.lookup(Aras.HAS_PROPER_NAME, "BMW").size());
+
+			final ResourceNode car = new NeoResourceResolver(connection, reading).findResource(qnCar);
+			assertFalse(associations(car, Aras.HAS_PROPER_NAME).isEmpty());
+		} finally {
+			reading.close();
+		}
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.tools.ConsistencyReport;
+import org.arastreju.bindings.neo4j.tools.ConsistencyReport.Issue;
+import org.arastreju.bindings.neo4j.tools.IndexConsistencyChecker;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for checking and repairing the indexes against the graph.
+ * </p>
+ */
+public class IndexConsistencyCheckerTest {
+
+	private static final int RESOURCES = 10;
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+	private final SimpleContextID ctx2 = new SimpleContextID("http://q/ctx#", "ctx2");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoConversationContext reader;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		reader = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+
+		ctx.setPrimaryContext(ctx1);
+		for (int i = 0; i < RESOURCES; i++) {
+			final ResourceNode car = new SNResource(new QualifiedName("http://q#", "Car" + i));
+			SNOPS.associate(car, RDFS.LABEL, new SNText("Car " + i));
+			sna.attach(car);
+		}
+		ctx.setPrimaryContext(ctx2);
+		final ResourceNode bike = new SNResource(new QualifiedName("http://q#", "Bike"));
+		SNOPS.associate(bike, RDFS.LABEL, new SNText("Bike"));
+		sna.attach(bike);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		reader.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testConsistentStore() throws Exception {
+		final ConsistencyReport report = new IndexConsistencyChecker(connection).check();
+		assertTrue(report.toString(), report.isConsistent());
+		assertTrue(report.getChecked() >= RESOURCES + 1);
+		assertEquals(0, report.getRepaired());
+	}
+
+	@Test
+	public void testMissingEntriesAreRepaired() throws Exception {
+		final Index<Node> ctx1Index = connection.getIndexRegistry().forContext(ctx1);
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			for (int i = 0; i < 3; i++) {
+				ctx1Index.remove(findNode("Car" + i));
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+
+		final ConsistencyReport report = new IndexConsistencyChecker(connection).check();
+		assertFalse(report.isConsistent());
+		assertEquals(3, report.getCount(Issue.MISSING));
+		assertEquals(0, report.getRepaired());
+		reader.setReadContexts(ctx1);
+		assertTrue(new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Car 1").isEmpty());
+
+		final ConsistencyReport repaired = new IndexConsistencyChecker(connection, 2, true).check();
+		assertEquals(3, repaired.getCount(Issue.MISSING));
+		assertEquals(3, repaired.getRepaired());
+
+		assertTrue(new IndexConsistencyChecker(connection).check().isConsistent());
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Car 1").size());
+	}
+
+	@Test
+	public void testStaleEntriesAreRepaired() throws Exception {
+		final Index<Node> ctx2Index = connection.getIndexRegistry().forContext(ctx2);
+		final Index<Node> resources = connection.getIndexRegistry().forNodes(NeoIndex.INDEX_RESOURCES);
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			// a resource without statements in ctx2
+			ctx2Index.add(findNode("Car1"), SNOPS.uri(RDFS.LABEL), "car 1");
+			// a node which is no resource node
+			resources.add(store.getGdbService().createNode(), NeoIndex.INDEX_KEY_RESOURCE_URI, "http://q#nothing");
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+
+		final ConsistencyReport report = new IndexConsistencyChecker(connection).check();
+		assertEquals(2, report.getCount(Issue.STALE));
+		assertEquals(0, report.getCount(Issue.MISSING));
+
+		final ConsistencyReport repaired = new IndexConsistencyChecker(connection, 1, true).check();
+		assertEquals(2, repaired.getCount(Issue.STALE));
+		assertEquals(2, repaired.getRepaired());
+
+		assertTrue(new IndexConsistencyChecker(connection).check().isConsistent());
+		reader.setReadContexts(ctx2);
+		assertTrue(new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Car 1").isEmpty());
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Bike").size());
+	}
+
+	// -----------------------------------------------------
+
+	private Node findNode(String name) {
+		final String uri = new QualifiedName("http://q#", name).toURI();
+		return connection.getIndexRegistry().forNodes(NeoIndex.INDEX_RESOURCES)
+				.get(NeoIndex.INDEX_KEY_RESOURCE_URI, NeoIndex.normalize(uri)).getSingle();
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.tools.IndexRebuilder;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.index.lucene.QueryContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for dropping and rebuilding the indexes from the graph.
+ * </p>
+ */
+public class IndexRebuilderTest {
+
+	private static final int RESOURCES = 25;
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+
+	private final QualifiedName qnVehicle = new QualifiedName("http://q#", "Vehicle");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoConversationContext reader;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		reader = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		reader.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testRebuild() throws Exception {
+		createResources();
+
+		final long indexed = new IndexRebuilder(connection, 3, false).rebuild();
+		assertTrue(indexed >= RESOURCES + 1);
+
+		assertIndexed();
+	}
+
+	@Test
+	public void testDropAndReindex() throws Exception {
+		createResources();
+
+		final IndexRebuilder rebuilder = new IndexRebuilder(connection, 4, true);
+		assertTrue(rebuilder.drop() > 0);
+		reader.setReadContexts(ctx1);
+		assertTrue(new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Car 1").isEmpty());
+
+		rebuilder.reindex();
+		assertIndexed();
+	}
+
+	@Test
+	public void testRebuildDropsStaleEntries() throws Exception {
+		createResources();
+		final Index<Node> ctx1Index = connection.getIndexRegistry().forContext(ctx1);
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			final Node car = ctx1Index.get(SNOPS.uri(RDFS.LABEL), "car 1").getSingle();
+			ctx1Index.add(car, SNOPS.uri(RDFS.LABEL), "stale");
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		reader.setReadContexts(ctx1);
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "stale").size());
+
+		new IndexRebuilder(connection).rebuild();
+
+		final ResourceIndex index = new ResourceIndex(connection, reader);
+		assertTrue(index.lookup(RDFS.LABEL, "stale").isEmpty());
+		assertEquals(1, index.lookup(RDFS.LABEL, "Car 1").size());
+	}
+
+	@Test
+	public void testIndexHandlesAreShared() throws Exception {
+		createResources();
+		final IndexRegistry registry = connection.getIndexRegistry();
+		assertSame(registry.forContext(ctx1), registry.forContext(ctx1));
+		assertSame(registry.forNodes(NeoIndex.INDEX_RESOURCES), registry.findForNodes(NeoIndex.INDEX_RESOURCES));
+	}
+
+	@Test
+	public void testIndexHandlesAreRenewedAfterDrop() throws Exception {
+		createResources();
+		final IndexRegistry registry = connection.getIndexRegistry();
+		final String name = registry.getContextIndexName(ctx1.toURI());
+		final Index<Node> before = registry.forContext(ctx1);
+
+		final IndexRebuilder rebuilder = new IndexRebuilder(connection);
+		rebuilder.drop();
+		// reading does not recreate the deleted index
+		assertNull(registry.findForNodes(name));
+
+		// writing after the drop uses a new index, not the handle of the deleted one
+		ctx.setPrimaryContext(ctx1);
+		final ResourceNode bike = new SNResource(new QualifiedName("http://q#", "Bike"));
+		SNOPS.associate(bike, RDFS.LABEL, new SNText("Bike"));
+		sna.attach(bike);
+		ctx.clear();
+		final Index<Node> after = registry.forContext(ctx1);
+		assertNotSame(before, after);
+		assertSame(after, registry.findForNodes(name));
+		reader.setReadContexts(ctx1);
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Bike").size());
+
+		rebuilder.reindex();
+		assertSame(after, registry.forContext(ctx1));
+		assertIndexed();
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(RDFS.LABEL, "Bike").size());
+	}
+
+	// -----------------------------------------------------
+
+	private void createResources() {
+		final ResourceNode vehicle = new SNResource(qnVehicle);
+		SNOPS.associate(vehicle, RDF.TYPE, RDFS.CLASS);
+		sna.attach(vehicle);
+
+		ctx.setPrimaryContext(ctx1);
+		for (int i = 0; i < RESOURCES; i++) {
+			final ResourceNode car = new SNResource(new QualifiedName("http://q#", "Car" + i));
+			SNOPS.associate(car, RDF.TYPE, vehicle);
+			SNOPS.associate(car, RDFS.LABEL, new SNText("Car " + i));
+			SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Vehicle number " + i));
+			sna.attach(car);
+		}
+		ctx.clear();
+	}
+
+	private void assertIndexed() {
+		ctx.clear();
+		final NeoResourceResolver resolver = new NeoResourceResolver(connection, ctx);
+		assertNotNull(resolver.findResource(qnVehicle));
+		for (int i = 0; i < RESOURCES; i++) {
+			assertNotNull(resolver.findResource(new QualifiedName("http://q#", "Car" + i)));
+		}
+
+		reader.setReadContexts(ctx1);
+		final ResourceIndex index = new ResourceIndex(connection, reader);
+		assertEquals(1, index.lookup(RDFS.LABEL, "Car 1").size());
+		assertEquals(RESOURCES, index.lookup(RDF.TYPE, new SimpleResourceID(qnVehicle)).size());
+		assertEquals(RESOURCES, index.search(new QueryContext(NeoIndex.INDEX_KEY_RESOURCE_TEXT + ":number")).size());
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.IndexRepairQueue;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexHits;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ *  Test cases for skipping invalid index hits in searches and removing them in the background.
+ * </p>
+ */
+public class IndexRepairQueueTest implements NeoConstants {
+
+	private static final long TIMEOUT = 10000;
+
+	private final String label = SNOPS.uri(RDFS.LABEL);
+
+	private GraphDataStore store;
+	private GraphDatabaseService gdbService;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private Index<Node> localIndex;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		gdbService = store.getGdbService();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		localIndex = connection.getIndexRegistry().forNodes(NeoIndex.INDEX_LOCAL);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testInvalidHitsAreSkippedAndRemoved() throws Exception {
+		final ResourceNode car = new SNResource(new QualifiedName("http://q#", "Car"));
+		SNOPS.associate(car, RDFS.LABEL, new SNText("Car"));
+		sna.attach(car);
+
+		Transaction tx = gdbService.beginTx();
+		final Node deleted;
+		try {
+			localIndex.add(gdbService.createNode(), label, "car");
+			deleted = gdbService.createNode();
+			localIndex.add(deleted, label, "car");
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		tx = gdbService.beginTx();
+		try {
+			deleted.delete();
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		assertEquals(3, countEntries("car"));
+
+		final NeoIndex index = new NeoIndex(ctx, connection.getIndexRegistry(), connection.getIndexRepairQueue());
+		final List<Node> result = index.search(label, "Car");
+		assertEquals(1, result.size());
+		assertEquals(car.getQualifiedName().toURI(), result.get(0).getProperty(PROPERTY_URI));
+
+		final long until = System.currentTimeMillis() + TIMEOUT;
+		while (countEntries("car") > 1 && System.currentTimeMillis() < until) {
+			Thread.sleep(20);
+		}
+		assertEquals(1, countEntries("car"));
+		assertEquals(0, connection.getIndexRepairQueue().size());
+		assertEquals(1, index.search(label, "Car").size());
+	}
+
+	@Test
+	public void testClosedQueueIgnoresNodes() throws Exception {
+		final IndexRepairQueue queue = new IndexRepairQueue(gdbService, connection.getIndexRegistry());
+		queue.close();
+
+		final Transaction tx = gdbService.beginTx();
+		try {
+			final Node invalid = gdbService.createNode();
+			localIndex.add(invalid, label, "car");
+			queue.enqueue(invalid);
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		assertEquals(0, queue.size());
+
+		Thread.sleep(100);
+		assertEquals(1, countEntries("car"));
+	}
+
+	// -----------------------------------------------------
+
+	private int countEntries(String value) {
+		final IndexHits<Node> hits = localIndex.get(label, value);
+		try {
+			return hits.size();
+		} finally {
+			hits.close();
+		}
+	}
+
+}
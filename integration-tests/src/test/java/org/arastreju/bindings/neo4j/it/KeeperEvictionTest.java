@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoAssocKeeperAccess;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>
+ *  Test cases for conversations evicting unused association keepers.
+ * </p>
+ */
+public class KeeperEvictionTest {
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+	private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private NeoResourceResolver resolver;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection, 1);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		resolver = new NeoResourceResolver(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testEvictionAndReResolution() throws Exception {
+		final WeakReference<NeoAssociationKeeper> evicted = attachCar();
+		// the bike replaces the car as the most recently used keeper
+		sna.attach(new SNResource(qnBike));
+		for (int i = 0; i < 50 && evicted.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertNull(evicted.get());
+
+		final ResourceNode car = resolver.findResource(qnCar);
+		assertNotNull(car);
+		assertEquals("BMW", SNOPS.singleObject(car, Aras.HAS_PROPER_NAME).asValue().getStringValue());
+	}
+
+	@Test
+	public void testReferencedKeeperIsKept() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("BMW"));
+		sna.attach(car);
+		sna.attach(new SNResource(qnBike));
+		System.gc();
+
+		final ResourceNode found = resolver.findResource(qnCar);
+		assertSame(NeoAssocKeeperAccess.getAssociationKeeper(car), NeoAssocKeeperAccess.getAssociationKeeper(found));
+	}
+
+	// -----------------------------------------------------
+
+	private WeakReference<NeoAssociationKeeper> attachCar() {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("BMW"));
+		sna.attach(car);
+		return new WeakReference<NeoAssociationKeeper>(NeoAssocKeeperAccess.getNeoAssociationKeeper(car));
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.arastreju.sge.SNOPS.associations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for merging a detached node into the attached node of the same resource.
+ * </p>
+ */
+public class MergeTest {
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private NeoResourceResolver resolver;
+	private ResourceIndex index;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		resolver = new NeoResourceResolver(connection, ctx);
+		index = new ResourceIndex(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testMergeAddsAndRemoves() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_BRAND_NAME, new SNText("BMW"));
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		sna.attach(car);
+
+		final ResourceNode changed = new SNResource(qnCar);
+		final Statement brand = SNOPS.associate(changed, Aras.HAS_BRAND_NAME, new SNText("BMW"));
+		assertTrue(changed.removeAssociation(brand));
+		SNOPS.associate(changed, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		SNOPS.associate(changed, RDFS.LABEL, new SNText("Automobil"));
+		sna.attach(changed);
+
+		ctx.clear();
+		final ResourceNode loaded = resolver.findResource(qnCar);
+		assertEquals(2, loaded.getAssociations().size());
+		assertTrue(associations(loaded, Aras.HAS_BRAND_NAME).isEmpty());
+		assertFalse(associations(loaded, Aras.HAS_PROPER_NAME).isEmpty());
+		assertFalse(associations(loaded, RDFS.LABEL).isEmpty());
+
+		assertTrue(index.lookup(Aras.HAS_BRAND_NAME, "BMW").isEmpty());
+		assertEquals(1, index.lookup(Aras.HAS_PROPER_NAME, "Knut").size());
+		assertEquals(1, index.lookup(RDFS.LABEL, "Automobil").size());
+	}
+
+	@Test
+	public void testMergeWithoutChangesKeepsIndex() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		sna.attach(car);
+
+		final ResourceNode same = new SNResource(qnCar);
+		SNOPS.associate(same, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		sna.attach(same);
+
+		ctx.clear();
+		assertEquals(1, resolver.findResource(qnCar).getAssociations().size());
+		assertEquals(1, index.lookup(Aras.HAS_PROPER_NAME, "Knut").size());
+	}
+
+	@Test
+	public void testApplyChangesInOneStep() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		final Statement brand = SNOPS.associate(car, Aras.HAS_BRAND_NAME, new SNText("BMW"));
+		sna.attach(car);
+
+		final ResourceNode changed = new SNResource(qnCar);
+		final Statement name = SNOPS.associate(changed, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		ctx.applyChanges(ctx.getAssociationKeeper(qnCar), Collections.singleton(name),
+				Collections.singleton(brand));
+
+		ctx.clear();
+		final ResourceNode loaded = resolver.findResource(qnCar);
+		assertEquals(1, loaded.getAssociations().size());
+		assertFalse(associations(loaded, Aras.HAS_PROPER_NAME).isEmpty());
+		assertTrue(index.lookup(Aras.HAS_BRAND_NAME, "BMW").isEmpty());
+		assertEquals(1, index.lookup(Aras.HAS_PROPER_NAME, "Knut").size());
+	}
+
+}
@@ -27,6 +27,8 @@ import org.arastreju.bindings.neo4j.NeoOrganizer;
 import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
 import org.arastreju.bindings.neo4j.impl.GraphDataStore;
 import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.bindings.neo4j.tools.StatementContextIndexer;
 import org.arastreju.sge.ModelingConversation;
 import org.arastreju.sge.Organizer;
 import org.arastreju.sge.SNOPS;
@@ -43,6 +45,7 @@ import org.arastreju.sge.naming.QualifiedName;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.neo4j.graphdb.Transaction;
 
 /**
  * <p>
@@ -150,6 +153,65 @@ public class NeoOrganizerTest {
 
     }
 
+    @Test
+    public void testContextExportContainsStatementsWithoutContext() {
+        Context c1 = organizer.registerContext(ctx1);
+        final int withoutContext = toList(organizer.getStatements()).size();
+
+        ModelingConversation conv = gate.startConversation();
+        ResourceNode mike = new SNResource(new QualifiedName(ns1, "Mike"));
+        conv.addStatement(mike.addAssociation(knows, new SNResource()));
+
+        conv.getConversationContext().setPrimaryContext(c1);
+        conv.addStatement(mike.addAssociation(knows, new SNResource()));
+
+        Assert.assertEquals(withoutContext + 2, toList(organizer.getStatements(c1)).size());
+        Assert.assertEquals(1, toList(((NeoOrganizer) organizer).getContextStatements(c1)).size());
+    }
+
+    @Test
+    public void testContextExportAfterIndexingExistingStatements() {
+        Context c1 = organizer.registerContext(ctx1);
+        Context c2 = organizer.registerContext(ctx2);
+        final int withoutContext = toList(organizer.getStatements()).size();
+
+        ModelingConversation conv = gate.startConversation();
+        ResourceNode mike = new SNResource(new QualifiedName(ns1, "Mike"));
+        conv.getConversationContext().setPrimaryContext(c1);
+        conv.addStatement(mike.addAssociation(knows, new SNResource()));
+        conv.getConversationContext().setPrimaryContext(c2);
+        conv.addStatement(mike.addAssociation(knows, new SNResource()));
+        conv.addStatement(mike.addAssociation(knows, new SNResource()));
+
+        // simulate a store written before the statement context index existed
+        final Transaction tx = store.getGdbService().beginTx();
+        try {
+            new StatementContextIndex(connection.getIndexManager()).delete();
+            tx.success();
+        } finally {
+            tx.finish();
+        }
+        final NeoOrganizer neoOrganizer = (NeoOrganizer) organizer;
+        try {
+            toList(neoOrganizer.getContextStatements(c1));
+            Assert.fail("Export from an incomplete statement context index must fail.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            toList(neoOrganizer.getStatements(c1));
+            Assert.fail("Export from an incomplete statement context index must fail.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        Assert.assertEquals(withoutContext + 3, new StatementContextIndexer(store).run());
+
+        Assert.assertEquals(1, toList(neoOrganizer.getContextStatements(c1)).size());
+        Assert.assertEquals(2, toList(neoOrganizer.getContextStatements(c2)).size());
+        Assert.assertEquals(withoutContext + 1, toList(neoOrganizer.getStatements(c1)).size());
+    }
+
     private List<Statement> toList(StatementContainer container) {
         List<Statement> result = new ArrayList<Statement>();
         for (Statement current : container) {
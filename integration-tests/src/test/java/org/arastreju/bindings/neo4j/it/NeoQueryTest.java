@@ -178,4 +178,58 @@ public class NeoQueryTest {
 		
 	}
 	
+	@Test
+	public void testFullTextSearch(){
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, RDFS.LABEL, new SNText("Red sports car, built 1972"));
+		sna.attach(car);
+
+		final ResourceNode bike = new SNResource(qnBike);
+		SNOPS.associate(bike, RDFS.LABEL, new SNText("Red racing bike"));
+		sna.attach(bike);
+
+		NeoQueryBuilder query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addFullText("car red");
+		List<ResourceNode> list = query.getResult().toList();
+		Assert.assertEquals(1, list.size());
+		Assert.assertTrue(list.contains(car));
+
+		query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addFullText("RED");
+		Assert.assertEquals(2, query.getResult().size());
+
+		query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addFullText("sports 1972");
+		Assert.assertEquals(1, query.getResult().size());
+
+		query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addFullText("spo");
+		Assert.assertEquals(0, query.getResult().size());
+	}
+
+	@Test
+	public void testPrefixSearch(){
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, RDFS.LABEL, new SNText("Red sports car"));
+		sna.attach(car);
+
+		final ResourceNode bike = new SNResource(qnBike);
+		SNOPS.associate(bike, RDFS.LABEL, new SNText("Red racing bike"));
+		sna.attach(bike);
+
+		NeoQueryBuilder query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addPrefix("red spo");
+		List<ResourceNode> list = query.getResult().toList();
+		Assert.assertEquals(1, list.size());
+		Assert.assertTrue(list.contains(car));
+
+		query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addPrefix("r");
+		Assert.assertEquals(2, query.getResult().size());
+
+		query = new NeoQueryBuilder(new ResourceIndex(connection, convCtx));
+		query.addPrefix("sports b");
+		Assert.assertEquals(0, query.getResult().size());
+	}
+
 }
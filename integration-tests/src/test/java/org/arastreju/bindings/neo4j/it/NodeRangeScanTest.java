@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.ResourcePage;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for parallel scans over node ID ranges.
+ * </p>
+ */
+public class NodeRangeScanTest implements NeoConstants {
+
+	private static final int RESOURCES = 50;
+
+	private static final int RANGE_SIZE = 7;
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(connection, ctx);
+		for (int i = 0; i < RESOURCES; i++) {
+			final ResourceNode node = new SNResource(new QualifiedName("http://q#", "R" + i));
+			SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText("Name " + i));
+			sna.attach(node);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testRangesAreContiguous() throws Exception {
+		final List<NodeRangeScan.NodeRange> ranges = new NodeRangeScan(connection, RANGE_SIZE).ranges();
+		assertTrue(ranges.size() > 1);
+		assertEquals(0, ranges.get(0).getStart());
+		for (int i = 1; i < ranges.size(); i++) {
+			assertEquals(ranges.get(i - 1).getEnd(), ranges.get(i).getStart());
+		}
+	}
+
+	@Test
+	public void testScanVisitsEachResourceOnce() throws Exception {
+		final Set<String> uris = newConcurrentSet();
+		final long visited = new NodeRangeScan(connection, RANGE_SIZE).scanNodes(new NodeRangeScan.NodeVisitor() {
+			public void visit(Node node) {
+				uris.add(node.getProperty(PROPERTY_URI).toString());
+			}
+		});
+		// value nodes are skipped
+		assertEquals(RESOURCES, visited);
+		assertEquals(RESOURCES, uris.size());
+		for (int i = 0; i < RESOURCES; i++) {
+			assertTrue(uris.contains("http://q#R" + i));
+		}
+	}
+
+	@Test
+	public void testScanStatements() throws Exception {
+		final Set<String> values = newConcurrentSet();
+		final long visited = new NodeRangeScan(connection, RANGE_SIZE).scanStatements(new NodeRangeScan.StatementVisitor() {
+			public void visit(Statement statement) {
+				values.add(statement.getObject().asValue().getStringValue());
+			}
+		});
+		assertEquals(RESOURCES, visited);
+		assertEquals(RESOURCES, values.size());
+	}
+
+	@Test
+	public void testScanFromWorkerThread() throws Exception {
+		final long visited = connection.submit(new Callable<Long>() {
+			public Long call() {
+				return new NodeRangeScan(connection, RANGE_SIZE).scanNodes(new NodeRangeScan.NodeVisitor() {
+					public void visit(Node node) {
+					}
+				});
+			}
+		}).get(30, TimeUnit.SECONDS);
+		assertEquals(RESOURCES, visited);
+	}
+
+	@Test
+	public void testResourcePagesSkipDeletedAndValueNodes() throws Exception {
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(connection, ctx);
+		final Set<String> removed = new HashSet<String>();
+		for (int i = 0; i < RESOURCES; i += 3) {
+			sna.remove(new SimpleResourceID("http://q#", "R" + i));
+			removed.add("http://q#R" + i);
+		}
+		final ResourceIndex index = new ResourceIndex(connection, ctx);
+		final Set<String> uris = new HashSet<String>();
+		long cursor = 0;
+		ResourcePage page;
+		do {
+			page = index.getResources(cursor, RANGE_SIZE);
+			if (page.hasMore()) {
+				// value nodes and deleted nodes between the resources do not shorten a page
+				assertEquals(RANGE_SIZE, page.getResources().size());
+			}
+			for (ResourceNode node : page.getResources()) {
+				assertTrue(uris.add(node.getQualifiedName().toURI()));
+			}
+			assertTrue(page.getNextCursor() > cursor || !page.hasMore());
+			cursor = page.getNextCursor();
+		} while (page.hasMore());
+
+		assertEquals(RESOURCES - removed.size(), uris.size());
+		for (String uri : removed) {
+			assertFalse(uris.contains(uri));
+		}
+	}
+
+	// -----------------------------------------------------
+
+	private Set<String> newConcurrentSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.tools.OrphanValueSweeper;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *  Test cases for the sweeping of orphan value nodes.
+ * </p>
+ */
+public class OrphanValueSweeperTest implements NeoConstants {
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testSweepsOnlyOrphans() throws Exception {
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_PROPER_NAME, new SNText("BMW"));
+		sna.attach(car);
+
+		final List<Long> orphans = createOrphans(5);
+
+		// small batches to cover more than one transaction
+		final long deleted = new OrphanValueSweeper(store, 2).sweep();
+		assertEquals(orphans.size(), deleted);
+
+		final GraphDatabaseService gdb = store.getGdbService();
+		for (Long id : orphans) {
+			try {
+				gdb.getNodeById(id);
+				fail("Orphan value node should have been deleted: " + id);
+			} catch (NotFoundException e) {
+				// expected
+			}
+		}
+
+		final Node neoNode = ctx.getResourceIndex().findNeoNode(qnCar);
+		final Node value = neoNode.getSingleRelationship(ArasRelTypes.VALUE, Direction.OUTGOING).getEndNode();
+		assertEquals("BMW", value.getProperty(PROPERTY_VALUE));
+	}
+
+	@Test
+	public void testSecondSweepFindsNothing() throws Exception {
+		createOrphans(3);
+		assertEquals(3, new OrphanValueSweeper(store).sweep());
+		assertEquals(0, new OrphanValueSweeper(store).sweep());
+	}
+
+	// -----------------------------------------------------
+
+	private List<Long> createOrphans(int count) {
+		final List<Long> ids = new ArrayList<Long>();
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			for (int i = 0; i < count; i++) {
+				final Node node = store.getGdbService().createNode();
+				node.setProperty(PROPERTY_DATATYPE, "STRING");
+				node.setProperty(PROPERTY_VALUE, "orphan " + i);
+				ids.add(node.getId());
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		return ids;
+	}
+
+}
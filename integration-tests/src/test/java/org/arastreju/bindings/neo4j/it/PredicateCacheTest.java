@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoAssocKeeperAccess;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for the cache of resolved predicates of a conversation.
+ * </p>
+ */
+public class PredicateCacheTest implements NeoConstants {
+
+	private final QualifiedName qnKnows = new QualifiedName("http://q#", "knows");
+	private final QualifiedName qnA = new QualifiedName("http://q#", "A");
+	private final QualifiedName qnB = new QualifiedName("http://q#", "B");
+	private final QualifiedName qnC = new QualifiedName("http://q#", "C");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private NeoResourceResolver resolver;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		resolver = new NeoResourceResolver(connection, ctx);
+
+		final ResourceNode knows = new SNResource(qnKnows);
+		SNOPS.associate(knows, Aras.HAS_PROPER_NAME, new SNText("knows"));
+		sna.attach(knows);
+		final ResourceNode c = new SNResource(qnC);
+		sna.attach(c);
+		for (QualifiedName qn : new QualifiedName[] { qnA, qnB }) {
+			final ResourceNode node = new SNResource(qn);
+			SNOPS.associate(node, SNOPS.id(qnKnows), c);
+			sna.attach(node);
+			// found again unresolved
+			sna.detach(node);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testPredicateIsResolvedOnce() throws Exception {
+		final ResourceNode first = predicateOf(qnA);
+		final ResourceNode second = predicateOf(qnB);
+		assertEquals(qnKnows, first.getQualifiedName());
+		assertSame(first, second);
+	}
+
+	@Test
+	public void testRemovedPredicateIsResolvedAgain() throws Exception {
+		final ResourceNode before = predicateOf(qnA);
+		assertTrue(before.isAttached());
+
+		sna.remove(SNOPS.id(qnKnows));
+		assertFalse(before.isAttached());
+
+		// the statements of B still use the predicate, it is resolved again
+		final ResourceNode after = predicateOf(qnB);
+		assertNotSame(before, after);
+		assertEquals(qnKnows, after.getQualifiedName());
+		assertTrue(after.isAttached());
+		// not the deleted node
+		assertEquals(qnKnows.toURI(), NeoAssocKeeperAccess.getNeoNode(after).getProperty(PROPERTY_URI));
+	}
+
+	// -----------------------------------------------------
+
+	private ResourceNode predicateOf(QualifiedName subject) {
+		final ResourceNode node = resolver.findResource(subject);
+		assertEquals(1, node.getAssociations().size());
+		final Statement stmt = node.getAssociations().iterator().next();
+		return stmt.getPredicate().asResource();
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoAssocKeeperAccess;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.query.NeoQueryResult;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * <p>
+ *  Test cases for prefetching the associations of result pages in parallel. A prefetched node is
+ *  told by its statements still being readable after they have been deleted from the graph.
+ * </p>
+ */
+public class PrefetchTest {
+
+	private static final int RESOURCES = 20;
+
+	private static final int NAMES = 3;
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoResourceResolver resolver;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		resolver = new NeoResourceResolver(connection, ctx);
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(connection, ctx);
+		final ResourceNode car = new SNResource(qnCar);
+		sna.attach(car);
+		for (int i = 0; i < RESOURCES; i++) {
+			final ResourceNode node = new SNResource(qn(i));
+			SNOPS.associate(node, RDF.TYPE, car);
+			for (int j = 0; j < NAMES; j++) {
+				SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText("Car " + i + "/" + j));
+			}
+			sna.attach(node);
+			// found again unresolved
+			sna.detach(node);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testPrefetchResolvesAllNodes() throws Exception {
+		final List<ResourceNode> nodes = findAll();
+		ctx.prefetchAssociations(nodes);
+		deleteStatements(nodes);
+		for (ResourceNode node : nodes) {
+			assertEquals(NAMES + 1, node.getAssociations().size());
+		}
+	}
+
+	@Test
+	public void testPrefetchedPageOfQueryResult() throws Exception {
+		final ResourceIndex index = new ResourceIndex(connection, ctx);
+		final NeoQueryResult result = (NeoQueryResult) index.lookup(RDF.TYPE, SNOPS.id(qnCar));
+		final List<ResourceNode> page = result.toPrefetchedList(5, 10);
+		assertEquals(10, page.size());
+
+		deleteStatements(page);
+		final Set<QualifiedName> onPage = new HashSet<QualifiedName>();
+		for (ResourceNode node : page) {
+			assertEquals(NAMES + 1, node.getAssociations().size());
+			onPage.add(node.getQualifiedName());
+		}
+		assertEquals(10, onPage.size());
+	}
+
+	@Test
+	public void testPrefetchFromWorkerThread() throws Exception {
+		final List<ResourceNode> nodes = findAll();
+		connection.submit(new Callable<Object>() {
+			public Object call() {
+				// runs inline instead of waiting for other workers
+				ctx.prefetchAssociations(nodes);
+				return null;
+			}
+		}).get(30, TimeUnit.SECONDS);
+		deleteStatements(nodes);
+		for (ResourceNode node : nodes) {
+			assertEquals(NAMES + 1, node.getAssociations().size());
+		}
+	}
+
+	@Test
+	public void testPrefetchSkipsDetachedNodes() throws Exception {
+		final ResourceNode detached = new SNResource(new QualifiedName("http://q#", "Detached"));
+		SNOPS.associate(detached, Aras.HAS_PROPER_NAME, new SNText("Detached"));
+		final ResourceNode attached = resolver.findResource(qn(0));
+		ctx.prefetchAssociations(Arrays.asList(detached, attached));
+		assertEquals(1, detached.getAssociations().size());
+		assertFalse(detached.isAttached());
+		assertEquals(NAMES + 1, attached.getAssociations().size());
+	}
+
+	// -----------------------------------------------------
+
+	private List<ResourceNode> findAll() {
+		final List<ResourceNode> nodes = new ArrayList<ResourceNode>();
+		for (int i = 0; i < RESOURCES; i++) {
+			nodes.add(resolver.findResource(qn(i)));
+		}
+		return nodes;
+	}
+
+	/**
+	 * Delete the outgoing relationships in the graph, bypassing the conversation.
+	 */
+	private void deleteStatements(List<ResourceNode> nodes) {
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			for (ResourceNode node : nodes) {
+				for (Relationship rel : NeoAssocKeeperAccess.getNeoNode(node).getRelationships(Direction.OUTGOING)) {
+					rel.delete();
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+	}
+
+	private QualifiedName qn(int i) {
+		return new QualifiedName("http://q#", "R" + i);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for reindexing a resource whose statements are kept in several contexts.
+ * </p>
+ */
+public class ReindexContextsTest {
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+	private final SimpleContextID ctx2 = new SimpleContextID("http://q/ctx#", "ctx2");
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private NeoConversationContext reader;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		reader = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		reader.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testReindexKeepsEntriesOfOtherContexts() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		final ResourceNode car = new SNResource(qnCar);
+		SNOPS.associate(car, Aras.HAS_BRAND_NAME, new SNText("BMW"));
+		final Statement label = SNOPS.associate(car, RDFS.LABEL, new SNText("Automobil"));
+		sna.attach(car);
+
+		ctx.setPrimaryContext(ctx2);
+		final ResourceNode changed = new SNResource(qnCar);
+		final Statement name = SNOPS.associate(changed, Aras.HAS_PROPER_NAME, new SNText("Knut"));
+		ctx.applyChanges(ctx.getAssociationKeeper(qnCar), Collections.singleton(name),
+				Collections.<Statement>emptySet());
+
+		reader.setReadContexts(ctx2);
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(Aras.HAS_PROPER_NAME, "Knut").size());
+
+		// removing a statement reindexes the resource in the index of ctx1
+		ctx.setPrimaryContext(ctx1);
+		ctx.applyChanges(ctx.getAssociationKeeper(qnCar), Collections.<Statement>emptySet(),
+				Collections.singleton(label));
+
+		reader.setReadContexts(ctx2);
+		assertEquals(1, new ResourceIndex(connection, reader).lookup(Aras.HAS_PROPER_NAME, "Knut").size());
+
+		reader.setReadContexts(ctx1);
+		final ResourceIndex index = new ResourceIndex(connection, reader);
+		assertEquals(1, index.lookup(Aras.HAS_BRAND_NAME, "BMW").size());
+		assertTrue(index.lookup(RDFS.LABEL, "Automobil").isEmpty());
+	}
+
+}
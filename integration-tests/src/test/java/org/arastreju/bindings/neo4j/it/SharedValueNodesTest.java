@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.arastreju.bindings.neo4j.impl.ValueNodeAccess;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ *  Test cases for value nodes shared by equal literals.
+ * </p>
+ */
+public class SharedValueNodesTest implements NeoConstants {
+
+	private static final int THREADS = 8;
+
+	private final QualifiedName qnCar = new QualifiedName("http://q#", "Car");
+	private final QualifiedName qnBike = new QualifiedName("http://q#", "Bike");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		final StoreSettings settings = new StoreSettings();
+		settings.setShareValueNodes(true);
+		store = new GraphDataStore(GraphDataStore.prepareTempStore("shared-values"), settings);
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testEqualLiteralsShareOneNode() throws Exception {
+		attachWithName(qnCar, "BMW");
+		attachWithName(qnBike, "BMW");
+
+		assertEquals(valueNodeOf(qnCar).getId(), valueNodeOf(qnBike).getId());
+	}
+
+	@Test
+	public void testRemovingOneStatementKeepsSharedNode() throws Exception {
+		final ResourceNode car = attachWithName(qnCar, "BMW");
+		attachWithName(qnBike, "BMW");
+		final long valueNodeId = valueNodeOf(qnBike).getId();
+
+		sna.remove(car);
+
+		final Node valueNode = store.getGdbService().getNodeById(valueNodeId);
+		assertEquals("BMW", valueNode.getProperty(PROPERTY_VALUE));
+		assertEquals(valueNodeId, valueNodeOf(qnBike).getId());
+	}
+
+	@Test
+	public void testConcurrentCreationYieldsOneNode() throws Exception {
+		final GraphDatabaseService gdb = store.getGdbService();
+		final ValueNodeAccess valueNodes = new ValueNodeAccess(store);
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Long>> results = new ArrayList<Future<Long>>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(new Callable<Long>() {
+					public Long call() throws Exception {
+						start.await();
+						final Transaction tx = gdb.beginTx();
+						try {
+							final Node node = valueNodes.getOrCreate("STRING", "BMW", null);
+							tx.success();
+							return node.getId();
+						} finally {
+							tx.finish();
+						}
+					}
+				}));
+			}
+			start.countDown();
+			final long expected = results.get(0).get();
+			for (Future<Long> result : results) {
+				assertEquals(expected, result.get().longValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// -----------------------------------------------------
+
+	private ResourceNode attachWithName(QualifiedName qn, String name) {
+		final ResourceNode node = new SNResource(qn);
+		SNOPS.associate(node, Aras.HAS_PROPER_NAME, new SNText(name));
+		sna.attach(node);
+		return node;
+	}
+
+	private Node valueNodeOf(QualifiedName qn) {
+		final Node neoNode = ctx.getResourceIndex().findNeoNode(qn);
+		return neoNode.getSingleRelationship(ArasRelTypes.VALUE, Direction.OUTGOING).getEndNode();
+	}
+
+}
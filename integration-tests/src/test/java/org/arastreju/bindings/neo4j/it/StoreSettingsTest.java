@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.query.NeoQueryBuilder;
+import org.arastreju.sge.ArastrejuProfile;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.arastreju.sge.query.FieldParam;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexManager;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for parsing the store settings from a profile and applying them.
+ * </p>
+ */
+public class StoreSettingsTest {
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		store = new GraphDataStore();
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testParseConfig() throws Exception {
+		final Map<String, String> config = StoreSettings.parseConfig(" type = fulltext, to_lower_case=true,, ");
+		assertEquals(2, config.size());
+		assertEquals("fulltext", config.get("type"));
+		assertEquals("true", config.get("to_lower_case"));
+		assertTrue(StoreSettings.parseConfig("").isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidConfigIsRejected() throws Exception {
+		StoreSettings.parseConfig("type=exact,fulltext");
+	}
+
+	@Test
+	public void testSettingsFromProfile() throws Exception {
+		final ArastrejuProfile profile = new ArastrejuProfile("settings");
+		profile.setProperty(StoreSettings.KEY_INDEX_CONFIG, "type=fulltext");
+		profile.setProperty(StoreSettings.KEY_KERNEL_CONFIG, "cache_type=weak");
+		profile.setProperty(StoreSettings.KEY_EVENTUALLY_CONSISTENT_SEARCH, "false");
+
+		final StoreSettings settings = StoreSettings.fromProfile(profile);
+		assertEquals(Collections.singletonMap("type", "fulltext"), settings.getIndexConfig());
+		assertEquals(Collections.singletonMap("cache_type", "weak"), settings.getKernelConfig());
+		assertFalse(settings.isEventuallyConsistentSearch());
+	}
+
+	@Test
+	public void testDefaults() throws Exception {
+		final StoreSettings settings = StoreSettings.fromProfile(new ArastrejuProfile("defaults"));
+		assertTrue(settings.getIndexConfig().isEmpty());
+		assertTrue(settings.getKernelConfig().isEmpty());
+		assertTrue(settings.isEventuallyConsistentSearch());
+	}
+
+	@Test
+	public void testIndexConfigAppliesToNewIndexesOnly() throws Exception {
+		final IndexManager manager = store.getIndexManager();
+		manager.forNodes("existing");
+		final IndexRegistry registry = new IndexRegistry(manager, Collections.singletonMap("type", "fulltext"));
+
+		final Index<Node> created = registry.forNodes("created");
+		assertEquals("fulltext", manager.getConfiguration(created).get("type"));
+		final Index<Node> existing = registry.forNodes("existing");
+		assertEquals("exact", manager.getConfiguration(existing).get("type"));
+	}
+
+	@Test
+	public void testConsistentSearchSeesUncommittedChanges() throws Exception {
+		final SemanticNetworkAccess sna = new SemanticNetworkAccess(connection, ctx);
+		final Transaction tx = store.getGdbService().beginTx();
+		try {
+			final ResourceNode car = new SNResource(new QualifiedName("http://q#", "Car"));
+			SNOPS.associate(car, RDFS.LABEL, new SNText("Automobil"));
+			sna.attach(car);
+
+			assertEquals(1, searchLabel(false));
+			// eventually consistent searches read only the committed index
+			assertEquals(0, searchLabel(true));
+		} finally {
+			tx.failure();
+			tx.finish();
+		}
+	}
+
+	// -----------------------------------------------------
+
+	private int searchLabel(boolean eventuallyConsistent) {
+		final NeoQueryBuilder query = new NeoQueryBuilder(new ResourceIndex(connection, ctx), eventuallyConsistent);
+		query.add(new FieldParam(RDFS.LABEL, "Automobil"));
+		return query.getResult().size();
+	}
+
+}
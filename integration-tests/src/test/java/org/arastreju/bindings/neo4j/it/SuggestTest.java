@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.it;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDFS;
+import org.arastreju.sge.context.SimpleContextID;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.views.SNText;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.IndexHits;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for type-ahead suggestions from the n-gram index of the suggest predicates.
+ * </p>
+ */
+public class SuggestTest {
+
+	private final SimpleContextID ctx1 = new SimpleContextID("http://q/ctx#", "ctx1");
+	private final SimpleContextID ctx2 = new SimpleContextID("http://q/ctx#", "ctx2");
+
+	private GraphDataStore store;
+	private GraphDataConnection connection;
+	private NeoConversationContext ctx;
+	private SemanticNetworkAccess sna;
+	private ResourceIndex index;
+
+	// -----------------------------------------------------
+
+	@Before
+	public void setUp() throws Exception {
+		final StoreSettings settings = new StoreSettings();
+		settings.getSuggestPredicates().add(SNOPS.uri(RDFS.LABEL));
+		store = new GraphDataStore(GraphDataStore.prepareTempStore("suggest"), settings);
+		connection = new GraphDataConnection(store);
+		ctx = new NeoConversationContext(connection);
+		sna = new SemanticNetworkAccess(connection, ctx);
+		index = new ResourceIndex(connection, ctx);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		connection.close();
+		ctx.close();
+		store.close();
+	}
+
+	// -----------------------------------------------------
+
+	@Test
+	public void testSuggestByPrefix() throws Exception {
+		final ResourceNode car = create("Car", RDFS.LABEL, "Automobil");
+		final ResourceNode road = create("Road", RDFS.LABEL, "Autobahn");
+		create("Union", RDFS.LABEL, "Auto Union");
+		create("Bike", RDFS.LABEL, "Fahrrad");
+
+		assertEquals(3, index.suggest("aut", 10).toList().size());
+		assertEquals(3, index.suggest("AUTO", 10).toList().size());
+
+		final List<ResourceNode> autob = index.suggest("autob", 10).toList();
+		assertEquals(1, autob.size());
+		assertTrue(autob.contains(road));
+
+		final List<ResourceNode> automobil = index.suggest("automobil", 10).toList();
+		assertEquals(1, automobil.size());
+		assertTrue(automobil.contains(car));
+
+		assertTrue(index.suggest("bahn", 10).toList().isEmpty());
+	}
+
+	@Test
+	public void testSuggestRequiresAllWords() throws Exception {
+		final ResourceNode union = create("Union", RDFS.LABEL, "Auto Union");
+		create("Car", RDFS.LABEL, "Automobil");
+
+		final List<ResourceNode> result = index.suggest("auto un", 10).toList();
+		assertEquals(1, result.size());
+		assertTrue(result.contains(union));
+	}
+
+	@Test
+	public void testSuggestIsLimited() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			create("Car" + i, RDFS.LABEL, "Auto " + i);
+		}
+		assertEquals(2, index.suggest("auto", 2).toList().size());
+	}
+
+	@Test
+	public void testSuggestOverSeveralContextsIsLimitedAfterMerge() throws Exception {
+		ctx.setPrimaryContext(ctx1);
+		create("Union", RDFS.LABEL, "Auto Union Werke Zwickau");
+		create("Bus", RDFS.LABEL, "Autobus Linie Zwickau Nord");
+		create("Road", RDFS.LABEL, "Autobahn Zwickau West Sachsen");
+		ctx.setPrimaryContext(ctx2);
+		final ResourceNode car = create("Car", RDFS.LABEL, "Auto");
+		for (int i = 0; i < 5; i++) {
+			create("Bike" + i, RDFS.LABEL, "Fahrrad " + i);
+		}
+
+		final NeoConversationContext reader = new NeoConversationContext(connection);
+		try {
+			reader.setReadContexts(ctx1, ctx2);
+			final IndexHits<Node> hits = new NeoIndex(reader, connection.getIndexRegistry()).suggest("auto", 2);
+			final List<Long> ids = new ArrayList<Long>();
+			float previous = Float.MAX_VALUE;
+			for (Node node : hits) {
+				ids.add(node.getId());
+				assertTrue(hits.currentScore() <= previous);
+				previous = hits.currentScore();
+			}
+			assertEquals(2, ids.size());
+			// the short label in the second context scores best.
+			assertEquals(index.findNeoNode(car.getQualifiedName()).getId(), ids.get(0).longValue());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testOnlySuggestPredicatesAreConsidered() throws Exception {
+		create("Author", Aras.HAS_PROPER_NAME, "Autor");
+		assertTrue(index.suggest("aut", 10).toList().isEmpty());
+		assertEquals(1, index.lookup(Aras.HAS_PROPER_NAME, "Autor").size());
+	}
+
+	// -----------------------------------------------------
+
+	private ResourceNode create(String name, ResourceID predicate, String value) {
+		final ResourceNode node = new SNResource(new QualifiedName("http://q#", name));
+		SNOPS.associate(node, predicate, new SNText(value));
+		sna.attach(node);
+		return node;
+	}
+
+}
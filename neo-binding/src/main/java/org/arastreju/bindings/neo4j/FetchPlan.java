@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j;
+
+import org.arastreju.sge.model.ResourceID;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Declares which part of the graph around a resource shall be loaded eagerly when the resource is resolved.
+ *  A plan either follows all references up to a given depth or only a given path of predicates,
+ *  e.g. first <code>rdf:type</code> and then the associations of the types.
+ * </p>
+ */
+public class FetchPlan {
+
+	private final int depth;
+
+	private final ResourceID[] path;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Create a plan following all references.
+	 * @param depth The number of hops to be followed. 0 resolves only the resource's own associations.
+	 * @return The fetch plan.
+	 */
+	public static FetchPlan depth(int depth) {
+		if (depth < 0) {
+			throw new IllegalArgumentException("Depth of fetch plan must not be negative: " + depth);
+		}
+		return new FetchPlan(depth, null);
+	}
+
+	/**
+	 * Create a plan following only the given predicates, one predicate per hop.
+	 * @param predicates The predicates to follow.
+	 * @return The fetch plan.
+	 */
+	public static FetchPlan path(ResourceID... predicates) {
+		return new FetchPlan(predicates.length, predicates.clone());
+	}
+
+	// ----------------------------------------------------
+
+	private FetchPlan(int depth, ResourceID[] path) {
+		this.depth = depth;
+		this.path = path;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return The number of hops to be followed.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Check if a reference with given predicate shall be followed at given hop.
+	 * @param hop The hop, starting with 0 for the resource's own associations.
+	 * @param predicate The predicate of the reference.
+	 * @return true if the referenced node shall be fetched.
+	 */
+	public boolean follows(int hop, ResourceID predicate) {
+		if (hop >= depth) {
+			return false;
+		} else if (path == null) {
+			return true;
+		} else {
+			return path[hop].getQualifiedName().equals(predicate.getQualifiedName());
+		}
+	}
+
+	// ----------------------------------------------------
+
+	@Override
+	public String toString() {
+		if (path == null) {
+			return "FetchPlan[depth=" + depth + "]";
+		} else {
+			return "FetchPlan" + Arrays.toString(path);
+		}
+	}
+
+}
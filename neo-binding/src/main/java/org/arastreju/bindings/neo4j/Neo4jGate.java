@@ -71,6 +71,16 @@ public class Neo4jGate extends AbstractArastrejuGate {
         return new Neo4jModellingConversation(connection, cc);
     }
 
+    /**
+     * Start a conversation intended to be kept open for a long time, e.g. by background jobs.
+     * Nodes not referenced by the client any more may be evicted from the conversation's register
+     * and will be re-resolved on demand.
+     * @return The new conversation.
+     */
+    public ModelingConversation startLongRunningConversation() {
+        return new Neo4jModellingConversation(connection, newConversationContext(true));
+    }
+
     @Override
 	public Organizer getOrganizer() {
 		return new NeoOrganizer(connection, this);
@@ -85,7 +95,11 @@ public class Neo4jGate extends AbstractArastrejuGate {
     // ----------------------------------------------------
 
     public NeoConversationContext newConversationContext() {
-        NeoConversationContext cc = new NeoConversationContext(connection);
+        return newConversationContext(false);
+    }
+
+    public NeoConversationContext newConversationContext(boolean evicting) {
+        NeoConversationContext cc = new NeoConversationContext(connection, evicting);
         super.initContext(cc);
         return cc;
     }
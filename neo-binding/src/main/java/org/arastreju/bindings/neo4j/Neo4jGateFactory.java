@@ -18,6 +18,7 @@ package org.arastreju.bindings.neo4j;
 
 import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
 import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
 import org.arastreju.sge.ArastrejuGate;
 import org.arastreju.sge.ArastrejuProfile;
 import org.arastreju.sge.context.DomainIdentifier;
@@ -114,11 +115,12 @@ public class Neo4jGateFactory extends ArastrejuGateFactory {
 
     private GraphDataStore createStore(String store) throws IOException {
         final ArastrejuProfile profile = getProfile();
+        final StoreSettings settings = StoreSettings.fromProfile(profile);
         if (isStoreDirDefined(profile)){
             String basedir = profile.getProperty(ArastrejuProfile.ARAS_STORE_DIRECTORY);
-            return new GraphDataStore(basedir + "/" + store);
+            return new GraphDataStore(basedir + "/" + store, settings);
         } else {
-            return new GraphDataStore(GraphDataStore.prepareTempStore(store));
+            return new GraphDataStore(GraphDataStore.prepareTempStore(store), settings);
         }
     }
 
@@ -22,15 +22,15 @@ import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
 import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
 import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
 import org.arastreju.bindings.neo4j.impl.SemanticNetworkAccess;
-import org.arastreju.bindings.neo4j.index.ResourceIndex;
 import org.arastreju.bindings.neo4j.query.NeoQueryBuilder;
+import org.arastreju.bindings.neo4j.query.NeoQueryResult;
 import org.arastreju.sge.ModelingConversation;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.naming.QualifiedName;
-import org.arastreju.sge.persistence.ResourceResolver;
 import org.arastreju.sge.query.Query;
+import org.arastreju.sge.query.QueryResult;
 import org.arastreju.sge.spi.abstracts.AbstractModelingConversation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,7 +56,7 @@ public class Neo4jModellingConversation extends AbstractModelingConversation imp
 	
 	private final SemanticNetworkAccess sna;
 	
-	private final ResourceResolver resolver;
+	private final NeoResourceResolver resolver;
 	
 	// -----------------------------------------------------
 
@@ -82,7 +82,8 @@ public class Neo4jModellingConversation extends AbstractModelingConversation imp
 	@Override
 	public Query createQuery() {
 		assertActive();
-		return new NeoQueryBuilder(new ResourceIndex(conversationContext));
+		return new NeoQueryBuilder(conversationContext.getResourceIndex(),
+				conversationContext.getConnection().getStore().getSettings().isEventuallyConsistentSearch());
 	}
 
     @Override
@@ -99,6 +100,29 @@ public class Neo4jModellingConversation extends AbstractModelingConversation imp
 		return resolver.findResource(qn);
 	}
 	
+	/**
+	 * Find the resource and eagerly load the part of the graph around it declared by the fetch plan.
+	 * @param qn The resource's qualified name.
+	 * @param plan The fetch plan.
+	 * @return The resource node or null.
+	 */
+	public ResourceNode findResource(final QualifiedName qn, final FetchPlan plan) {
+		assertActive();
+		return resolver.findResource(qn, plan);
+	}
+
+	/**
+	 * Suggest resources for type-ahead, based on the values of the suggest predicates configured
+	 * in the store settings.
+	 * @param prefix The user's input.
+	 * @param max The maximum number of suggestions.
+	 * @return The suggested resources.
+	 */
+	public QueryResult suggest(final String prefix, final int max) {
+		assertActive();
+		return conversationContext.getResourceIndex().suggest(prefix, max);
+	}
+	
 	@Override
     public ResourceNode resolve(final ResourceID resource) {
 		assertActive();
@@ -131,6 +155,36 @@ public class Neo4jModellingConversation extends AbstractModelingConversation imp
 		sna.remove(id);
 	}
 	
+	/**
+	 * Remove all given resources. The resources are removed in batches, each in its own transaction.
+	 * @param ids The IDs of the resources to be removed.
+	 * @return The number of removed resources.
+	 */
+	public long removeAll(final Iterable<? extends ResourceID> ids) {
+		assertActive();
+		return sna.removeAll(ids);
+	}
+
+	/**
+	 * Remove all resources matching the query. The hits are streamed into the batches,
+	 * so the IDs of all matching resources are never held at once.
+	 * @param query The query.
+	 * @return The number of removed resources.
+	 */
+	public long removeAll(final Query query) {
+		assertActive();
+		final QueryResult result = query.getResult();
+		try {
+			if (result instanceof NeoQueryResult) {
+				return sna.removeAll(((NeoQueryResult) result).ids());
+			} else {
+				return sna.removeAll(result);
+			}
+		} finally {
+			result.close();
+		}
+	}
+	
 	// ----------------------------------------------------
 	
 	@Override
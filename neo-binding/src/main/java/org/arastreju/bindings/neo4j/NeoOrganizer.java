@@ -18,7 +18,15 @@ package org.arastreju.bindings.neo4j;
 
 import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
 import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan;
+import org.arastreju.bindings.neo4j.impl.RelationshipConverter;
 import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.ResourcePage;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.bindings.neo4j.io.RdfExportFormat;
+import org.arastreju.bindings.neo4j.io.StreamingRdfExporter;
+import org.arastreju.bindings.neo4j.io.StreamingRdfImporter;
+import org.arastreju.bindings.neo4j.util.LongIdSet;
 import org.arastreju.sge.ModelingConversation;
 import org.arastreju.sge.apriori.Aras;
 import org.arastreju.sge.apriori.RDF;
@@ -28,15 +36,20 @@ import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.naming.Namespace;
 import org.arastreju.sge.query.Query;
-import org.arastreju.sge.query.QueryResult;
 import org.arastreju.sge.spi.abstracts.AbstractOrganizer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.index.IndexHits;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * <p>
@@ -49,7 +62,7 @@ import java.util.List;
  *
  * @author Oliver Tigges
  */
-public class NeoOrganizer extends AbstractOrganizer {
+public class NeoOrganizer extends AbstractOrganizer implements NeoConstants {
 
     private final GraphDataConnection connection;
     private final Neo4jGate gate;
@@ -97,11 +110,16 @@ public class NeoOrganizer extends AbstractOrganizer {
 
     /**
      * {@inheritDoc}
+     * <p>
+     *  Contains the statements assigned to one of the given contexts and all statements without
+     *  any context, both read from the statement context index. Use {@link #getContextStatements(Context...)}
+     *  to export only the statements assigned to the contexts.
+     * </p>
+     * @throws IllegalStateException if the statement context index has not been backfilled, see
+     *  {@link org.arastreju.bindings.neo4j.tools.StatementContextIndexer}.
      */
     @Override
     public StatementContainer getStatements(final Context... ctx) {
-        final NeoConversationContext conversationContext = new NeoConversationContext(connection);
-        conversationContext.setReadContexts(ctx);
         return new StatementContainer() {
             @Override
             public Collection<Namespace> getNamespaces() {
@@ -110,50 +128,159 @@ public class NeoOrganizer extends AbstractOrganizer {
 
             @Override
             public Iterator<Statement> iterator() {
-                final ResourceIndex index = new ResourceIndex(connection, conversationContext);
-                final QueryResult queryResult = index.getAllResources();
-                final Iterator<ResourceNode> nodeIterator = queryResult.iterator();
-                return new Iterator<Statement>() {
-
-                    private Iterator<Statement> stmtIterator;
-
-                    @Override
-                    public boolean hasNext() {
-                        if (stmtIterator == null) {
-                            nextNode();
-                        }
-                        while (stmtIterator != null) {
-                            if (stmtIterator.hasNext()) {
-                                return true;
-                            } else {
-                                nextNode();
-                            }
-
-                        }
-                        return false;
-                    }
+                return new ContextStatementIterator(ctx != null ? ctx : new Context[0], true);
+            }
+        } ;
+    }
 
-                    @Override
-                    public Statement next() {
-                        return stmtIterator.next();
-                    }
+    /**
+     * Get only the statements assigned to one of the given contexts. In contrast to
+     * {@link #getStatements(Context...)} statements without context are not contained, so the
+     * statements are streamed from the statement context index without scanning the store.
+     * @param ctx The contexts.
+     * @return The statements of the contexts.
+     * @throws IllegalStateException if the statement context index has not been backfilled.
+     */
+    public StatementContainer getContextStatements(final Context... ctx) {
+        return new StatementContainer() {
+            @Override
+            public Collection<Namespace> getNamespaces() {
+                return NeoOrganizer.this.getNamespaces();
+            }
 
-                    @Override
-                    public void remove() {
-                        throw new UnsupportedOperationException();
-                    }
+            @Override
+            public Iterator<Statement> iterator() {
+                return new ContextStatementIterator(ctx != null ? ctx : new Context[0], false);
+            }
+        };
+    }
+
+    /**
+     * Enumerate all resources of the store page by page.
+     * @param cursor The cursor, 0 for the first page, else the next cursor of the previous page.
+     * @param pageSize The maximum number of resources per page.
+     * @return The page.
+     */
+    public ResourcePage getResources(final long cursor, final int pageSize) {
+        return index().getResources(cursor, pageSize);
+    }
+
+    /**
+     * Visit all statements of the store, regardless of their contexts. The store is scanned by
+     * node ID ranges in parallel, so the visitor is called concurrently and must be thread safe.
+     * @param visitor The visitor.
+     * @return The number of visited statements.
+     */
+    public long scanStatements(final NodeRangeScan.StatementVisitor visitor) {
+        return new NodeRangeScan(connection).scanStatements(visitor);
+    }
+
+    /**
+     * Export all statements of the store directly to the output stream. In contrast to
+     * {@link #getStatements(Context...)} no resource nodes are created, so the memory consumption
+     * is constant regardless of the store size.
+     * @param out The output stream, will not be closed.
+     * @param format The RDF format.
+     * @return The number of written lines.
+     * @throws IOException on write errors.
+     */
+    public long export(final OutputStream out, final RdfExportFormat format) throws IOException {
+        return new StreamingRdfExporter(connection.getStore().getGdbService()).export(out, format);
+    }
+
+    /**
+     * Import N-Triples or N-Quads directly into the store. Statements are written in batches,
+     * bypassing the association keepers, and without inferencing.
+     * @param in The UTF-8 encoded input, will not be closed.
+     * @param skipLines The number of lines to skip, e.g. the lines committed by a failed import.
+     * @return The number of committed lines, including the skipped ones.
+     * @throws IOException on read errors.
+     */
+    public long importStatements(final InputStream in, final long skipLines) throws IOException {
+        final NeoConversationContext ctx = new NeoConversationContext(connection);
+        try {
+            return new StreamingRdfImporter(ctx).importStatements(in, skipLines);
+        } finally {
+            ctx.close();
+        }
+    }
+
+    // ----------------------------------------------------
+
+    /**
+     * Streams the statements of the given contexts, and optionally those without context, directly
+     * from the statement context index, without resolving the nodes in a conversation.
+     */
+    private class ContextStatementIterator implements Iterator<Statement> {
+
+        private final StatementContextIndex index = new StatementContextIndex(connection.getIndexManager());
+
+        private final RelationshipConverter converter = new RelationshipConverter();
 
-                    private void nextNode() {
-                        if (nodeIterator.hasNext()) {
-                            ResourceNode node = nodeIterator.next();
-                            stmtIterator = node.getAssociations().iterator();
-                        } else {
-                            stmtIterator = null;
-                        }
+        private final Context[] contexts;
+
+        private final boolean withoutContext;
+
+        private final LongIdSet visited;
+
+        private int current = 0;
+
+        private IndexHits<Relationship> hits;
+
+        private Relationship next;
+
+        private ContextStatementIterator(Context[] contexts, boolean withoutContext) {
+            if (!index.isComplete()) {
+                throw new IllegalStateException("The statement context index is incomplete, "
+                        + "it has to be built by the StatementContextIndexer or the IndexRebuilder.");
+            }
+            this.contexts = contexts;
+            this.withoutContext = withoutContext;
+            this.visited = contexts.length > 1 ? new LongIdSet() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (hits == null) {
+                    if (current < contexts.length) {
+                        hits = index.lookup(contexts[current++].getQualifiedName().toURI());
+                    } else if (current == contexts.length && withoutContext) {
+                        // statements without context are not contained in any context's hits.
+                        hits = index.lookupWithoutContext();
+                        current++;
+                    } else {
+                        return false;
                     }
-                };
+                }
+                if (!hits.hasNext()) {
+                    hits.close();
+                    hits = null;
+                    continue;
+                }
+                final Relationship candidate = hits.next();
+                if (candidate != null && converter.isStatement(candidate)
+                        && (visited == null || visited.add(candidate.getId()))) {
+                    next = candidate;
+                }
             }
-        } ;
+            return true;
+        }
+
+        @Override
+        public Statement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Relationship rel = next;
+            next = null;
+            return converter.toStatement(rel);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 
     // ----------------------------------------------------
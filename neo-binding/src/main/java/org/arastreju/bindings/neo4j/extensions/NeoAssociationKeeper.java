@@ -26,12 +26,23 @@ import org.arastreju.sge.model.associations.DetachedAssociationKeeper;
 import org.arastreju.sge.naming.QualifiedName;
 import org.neo4j.graphdb.Node;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
 /**
  * <p>
  *  Special {@link AssociationKeeper} for Neo4J.
  * </p>
  *
  * <p>
+ *  Reading the associations and resolving them are synchronized on the keeper, so a thread reading
+ *  a keeper being resolved by another thread waits until the associations are complete.
+ *  {@link #getAssociations()} returns a copy, which can be iterated without holding the lock. The
+ *  set of the keeper is only modified by the methods of the keeper, under its lock.
+ * </p>
+ *
+ * <p>
  * 	Created Oct 11, 2010
  * </p>
  *
@@ -43,7 +54,7 @@ public class NeoAssociationKeeper extends AbstractAssociationKeeper implements N
 	
 	private final Node neoNode;
 	
-	private NeoConversationContext context;
+	private volatile NeoConversationContext context;
 	
 	// -----------------------------------------------------
 	
@@ -73,25 +84,52 @@ public class NeoAssociationKeeper extends AbstractAssociationKeeper implements N
 	
 	// -----------------------------------------------------
 
+	/**
+	 * Get a copy of the associations, resolved first if necessary. Modifying the copy does not
+	 * modify the keeper.
+	 * @return The associations.
+	 */
+	@Override
+	public synchronized Set<Statement> getAssociations() {
+		return new HashSet<Statement>(super.getAssociations());
+	}
+
+	/**
+	 * Check if the keeper contains an association, resolved first if necessary.
+	 * @param assoc The association.
+	 * @return true if the association is contained.
+	 */
+	public synchronized boolean containsAssociation(final Statement assoc) {
+		return super.getAssociations().contains(assoc);
+	}
+
 	@Override
 	public void addAssociation(final Statement assoc) {
-		if (getAssociations().contains(assoc)) {
+		if (containsAssociation(assoc)) {
 			return;
 		}
 		if (isAttached()) {
 			context.addAssociation(this, assoc);
 		} else {
-			super.addAssociation(assoc);
+			synchronized (this) {
+				super.addAssociation(assoc);
+				// the base class may have added it to the copy returned by getAssociations().
+				getAssociationsDirectly().add(assoc);
+			}
 		}
 	}
 	
 	@Override
 	public boolean removeAssociation(final Statement assoc) {
 		if (isAttached()) {
-			getAssociations().remove(assoc);
+			removeAssociationDirectly(assoc);
 			return context.removeAssociation(this, assoc);
 		} else {
-			return super.removeAssociation(assoc);
+			synchronized (this) {
+				final boolean removed = super.removeAssociation(assoc);
+				// the base class may have removed it from the copy returned by getAssociations().
+				return getAssociationsDirectly().remove(assoc) || removed;
+			}
 		}
 	}
 	
@@ -133,14 +171,47 @@ public class NeoAssociationKeeper extends AbstractAssociationKeeper implements N
 	 * Add an association directly to the set, without resolving.
 	 * @param assoc The association to add.
 	 */
-	public void addAssociationDirectly(final Statement assoc) {
+	public synchronized void addAssociationDirectly(final Statement assoc) {
 		getAssociationsDirectly().add(assoc);
 	}
+
+	/**
+	 * Remove an association directly from the set, without resolving.
+	 * @param assoc The association to remove.
+	 * @return true if the association has been contained.
+	 */
+	public synchronized boolean removeAssociationDirectly(final Statement assoc) {
+		return getAssociationsDirectly().remove(assoc);
+	}
+
+	/**
+	 * Remove all associations without resolving, e.g. because the resource is removed.
+	 */
+	public synchronized void clearAssociations() {
+		markResolved();
+		getAssociationsDirectly().clear();
+	}
 	
+	/**
+	 * Remove the already loaded associations referencing the given resource, without resolving.
+	 * Used after the referenced resource has been removed from the store, so associations
+	 * resolved later will not contain these statements anyway.
+	 * @param object The qualified name of the removed resource.
+	 */
+	public synchronized void retractReferencesTo(final QualifiedName object) {
+		final Iterator<Statement> iterator = getAssociationsDirectly().iterator();
+		while (iterator.hasNext()) {
+			final Statement stmt = iterator.next();
+			if (stmt.getObject().isResourceNode() && object.equals(stmt.getObject().asResource().getQualifiedName())) {
+				iterator.remove();
+			}
+		}
+	}
+
 	// ----------------------------------------------------
 	
 	@Override
-	protected void resolveAssociations() {
+	protected synchronized void resolveAssociations() {
 		if (isAttached()) {
 			context.resolveAssociations(this);
 		} else {
@@ -21,6 +21,7 @@ import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
 import org.arastreju.bindings.neo4j.extensions.SNValueNeo;
 import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
 import org.arastreju.bindings.neo4j.tx.NeoTxProvider;
 import org.arastreju.sge.SNOPS;
 import org.arastreju.sge.context.Context;
@@ -31,7 +32,7 @@ import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.StatementMetaInfo;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.model.nodes.SemanticNode;
-import org.arastreju.sge.model.nodes.ValueNode;
+import org.arastreju.sge.naming.QualifiedName;
 import org.arastreju.sge.persistence.ResourceResolver;
 import org.arastreju.sge.persistence.TxAction;
 import org.neo4j.graphdb.Direction;
@@ -41,14 +42,16 @@ import org.neo4j.graphdb.RelationshipType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
@@ -79,7 +82,13 @@ public class AssociationHandler implements NeoConstants {
 
 	private final ContextAccess ctxAccess;
 
+	private final StatementContextIndex statementContexts;
+
+	private final ValueNodeAccess valueNodes;
+
 	private final NeoConversationContext convContext;
+
+	private final ConcurrentMap<String, ResourceNode> predicates = new ConcurrentHashMap<String, ResourceNode>();
 	
 	// ----------------------------------------------------
 	
@@ -92,8 +101,10 @@ public class AssociationHandler implements NeoConstants {
 		this.convContext = conversationContext;
 		this.resourceResolver = new NeoResourceResolver(connection, conversationContext);
         this.neoNodeResolver = new NeoNodeResolver(conversationContext);
-		this.index = new ResourceIndex(conversationContext);
-		this.ctxAccess = new ContextAccess(resourceResolver);
+		this.index = conversationContext.getResourceIndex();
+		this.statementContexts = new StatementContextIndex(connection.getIndexManager());
+		this.ctxAccess = new ContextAccess(resourceResolver, statementContexts);
+		this.valueNodes = new ValueNodeAccess(connection.getStore());
 		this.softInferencer = new NeoSoftInferencer(resourceResolver);
 		this.hardInferencer = new NeoHardInferencer(resourceResolver);
 	}
@@ -116,7 +127,7 @@ public class AssociationHandler implements NeoConstants {
 			} else if (rel.isType(ArasRelTypes.VALUE)){
 				object = new SNValueNeo(rel.getEndNode());
 			}
-			final ResourceNode predicate = resourceResolver.resolve(new SimpleResourceID(rel.getProperty(PREDICATE_URI).toString()));
+			final ResourceNode predicate = resolvePredicate(rel);
 			final StatementMetaInfo mi = new StatementMetaInfo(ctx, new Date((Long)rel.getProperty(TIMESTAMP, 0L)));
 			keeper.addAssociationDirectly(new DetachedStatement(keeper.getID(), predicate, object, mi));
 		}
@@ -130,7 +141,7 @@ public class AssociationHandler implements NeoConstants {
                 continue;
             }
             final ResourceNode subject = neoNodeResolver.resolve(rel.getStartNode());
-            final ResourceNode predicate = resourceResolver.resolve(new SimpleResourceID(rel.getProperty(PREDICATE_URI).toString()));
+            final ResourceNode predicate = resolvePredicate(rel);
             final StatementMetaInfo mi = new StatementMetaInfo(ctx, new Date((Long)rel.getProperty(TIMESTAMP, 0L)));
            result.add(new DetachedStatement(subject, predicate, keeper.getID(), mi));
         }
@@ -147,17 +158,11 @@ public class AssociationHandler implements NeoConstants {
 	public void addAssociation(final NeoAssociationKeeper keeper, final Statement stmt) {
         tx().doTransacted(new TxAction() {
             public void execute() {
-
-                final ResourceNode predicate = resourceResolver.resolve(stmt.getPredicate());
-                final SemanticNode object = resolve(stmt.getObject());
-                final Statement assoc = new DetachedStatement(keeper.getID(), predicate, object, stmt.getMetaInfo());
-                keeper.addAssociationDirectly(assoc);
-
-                createRelationships(keeper.getNeoNode(), stmt);
+                create(keeper, stmt);
+                index.index(keeper.getNeoNode(), stmt);
                 final List<Statement> stmtList = Collections.singletonList(stmt);
                 addHardInferences(stmtList);
                 addSoftInferences(keeper, stmtList);
-
             }
         });
 		
@@ -175,11 +180,12 @@ public class AssociationHandler implements NeoConstants {
             tx().doTransacted(new TxAction() {
                 public void execute() {
                     LOGGER.debug("Deleting: " + assoc);
-                    relationship.delete();
+                    delete(relationship);
                     //index.removeFromIndex(keeper.getNeoNode(), assoc);
                     removeHardInferences(Collections.singleton(assoc));
-                    index.reindex(keeper.getNeoNode(), keeper.getQualifiedName(), keeper.getAssociations());
-                    addSoftInferences(keeper, keeper.getAssociations());
+                    final Set<Statement> remaining = keeper.getAssociations();
+                    index.reindex(keeper.getNeoNode(), keeper.getQualifiedName(), remaining);
+                    addSoftInferences(keeper, remaining);
                 }
             });
 			return true;
@@ -189,6 +195,69 @@ public class AssociationHandler implements NeoConstants {
 		}
 	}
 	
+	/**
+	 * Apply a set of changes to the keeper's associations in one transaction.
+	 * Index and inferences are updated only once for all changes.
+	 * @param keeper The keeper.
+	 * @param toAdd The associations to be added.
+	 * @param toRemove The associations to be removed.
+	 */
+	public void applyChanges(final NeoAssociationKeeper keeper, final Collection<? extends Statement> toAdd,
+							 final Collection<? extends Statement> toRemove) {
+		tx().doTransacted(new TxAction() {
+			public void execute() {
+				final List<Statement> removed = new ArrayList<Statement>(toRemove.size());
+				for (Statement assoc : toRemove) {
+					keeper.removeAssociationDirectly(assoc);
+					final Relationship relationship = findCorresponding(keeper.getNeoNode(), assoc);
+					if (relationship != null) {
+						LOGGER.debug("Deleting: " + assoc);
+						delete(relationship);
+						removed.add(assoc);
+					} else {
+						LOGGER.warn("Didn't find corresponding relationship to delete: " + assoc);
+					}
+				}
+				final List<Statement> added = new ArrayList<Statement>(toAdd.size());
+				for (Statement stmt : toAdd) {
+					if (!keeper.containsAssociation(stmt)) {
+						create(keeper, stmt);
+						added.add(stmt);
+					}
+				}
+				removeHardInferences(removed);
+				addHardInferences(added);
+				if (removed.isEmpty()) {
+					for (Statement stmt : added) {
+						index.index(keeper.getNeoNode(), stmt);
+					}
+					addSoftInferences(keeper, added);
+				} else {
+					final Set<Statement> remaining = keeper.getAssociations();
+					index.reindex(keeper.getNeoNode(), keeper.getQualifiedName(), remaining);
+					addSoftInferences(keeper, remaining);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Forget a resource cached as predicate or context, e.g. because it has been removed.
+	 * @param qn The resource's qualified name.
+	 */
+	public void forget(QualifiedName qn) {
+		predicates.remove(qn.toURI());
+		ctxAccess.forget(qn);
+	}
+
+	/**
+	 * Clear the caches of resolved predicates and contexts.
+	 */
+	public void clearCaches() {
+		predicates.clear();
+		ctxAccess.clearCaches();
+	}
+	
 	// ----------------------------------------------------
 	
 	private void addSoftInferences(final NeoAssociationKeeper keeper, final Collection<? extends Statement> originals) {
@@ -245,6 +314,30 @@ public class AssociationHandler implements NeoConstants {
 		}
 	}
 	
+	/**
+	 * Add the statement to the keeper and create the corresponding relationship, without indexing.
+	 */
+	private void create(final NeoAssociationKeeper keeper, final Statement stmt) {
+		final ResourceNode predicate = resourceResolver.resolve(stmt.getPredicate());
+		final SemanticNode object = resolve(stmt.getObject());
+		final Statement assoc = new DetachedStatement(keeper.getID(), predicate, object, stmt.getMetaInfo());
+		keeper.addAssociationDirectly(assoc);
+		createRelationships(keeper.getNeoNode(), stmt);
+	}
+
+	/**
+	 * Delete the relationship and the value node it points to, if not used otherwise.
+	 */
+	private void delete(final Relationship relationship) {
+		final Node object = relationship.getEndNode();
+		final boolean isValue = relationship.isType(ArasRelTypes.VALUE);
+		statementContexts.remove(relationship);
+		relationship.delete();
+		if (isValue && !object.hasRelationship(Direction.INCOMING)) {
+			valueNodes.delete(object);
+		}
+	}
+	
 	private void createRelationships(Node subject, Statement stmt) {
         LOGGER.debug("Created statement {}. ", stmt);
 		if (stmt.getObject().isResourceNode()){
@@ -252,14 +345,9 @@ public class AssociationHandler implements NeoConstants {
 			final Node neoClient = NeoAssocKeeperAccess.getNeoNode(arasClient);
 			createRelationShip(subject, neoClient, stmt);
 		} else {
-			final Node neoClient = subject.getGraphDatabase().createNode();
-			final ValueNode value = stmt.getObject().asValue();
-			neoClient.setProperty(PROPERTY_DATATYPE, value.getDataType().name());
-			neoClient.setProperty(PROPERTY_VALUE, value.getStringValue());
-			addLocale(neoClient, value.getLocale());
+			final Node neoClient = valueNodes.getOrCreate(stmt.getObject().asValue());
 			createRelationShip(subject, neoClient, stmt);
 		}
-		index.index(subject, stmt);
 	}
 	
 	private void createRelationShip(final Node subject, final Node object, final Statement stmt) {
@@ -298,6 +386,20 @@ public class AssociationHandler implements NeoConstants {
 		return null;
 	}
 	
+	/**
+	 * Resolve the predicate of a relationship. Nodes typically have thousands of relationships
+	 * but only some distinct predicates, so each predicate is resolved only once.
+	 */
+	private ResourceNode resolvePredicate(final Relationship rel) {
+		final String uri = rel.getProperty(PREDICATE_URI).toString();
+		ResourceNode predicate = predicates.get(uri);
+		if (predicate == null || !predicate.isAttached()) {
+			predicate = resourceResolver.resolve(new SimpleResourceID(uri));
+			predicates.put(uri, predicate);
+		}
+		return predicate;
+	}
+	
 	private SemanticNode resolve(final SemanticNode node) {
 		if (node.isResourceNode()) {
 			return resourceResolver.resolve(node.asResource());
@@ -306,18 +408,6 @@ public class AssociationHandler implements NeoConstants {
 		}
 	}
 	
-	private void addLocale(Node node, Locale locale) {
-		if (locale == null || locale.getLanguage() == null) {
-			return;
-		}
-		final StringBuilder sb = new StringBuilder(5);
-		sb.append(locale.getLanguage());
-		if (locale.getCountry() != null) {
-			sb.append("_").append(locale.getCountry());
-		}
-		node.setProperty(PROPERTY_LOCALE, sb.toString());
-	}
-	
 	private Context[] getCurrentContexts(Statement stmt) {
 		if (stmt.getContexts().length == 0) {
 			if (convContext.getPrimaryContext() == null) {
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.naming.QualifiedName;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ *  Removes many resources at once. The IDs are streamed and removed in batches, each batch in one
+ *  transaction. Relationships in both directions are deleted together with the nodes, which also
+ *  retracts the hard inferences (inverse statements) of the removed resources. Index entries of
+ *  referencing nodes pointing to removed resources are removed in the same pass. A removed node is
+ *  removed from the resource index and from the indexes of all contexts of its statements.
+ * </p>
+ */
+public class BulkRemover implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkRemover.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	// ----------------------------------------------------
+
+	private final NeoConversationContext context;
+
+	private final GraphDatabaseService gdbService;
+
+	private final ResourceIndex index;
+
+	private final StatementContextIndex statementContexts;
+
+	private final ValueNodeAccess valueNodes;
+
+	private final int batchSize;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 */
+	public BulkRemover(NeoConversationContext context) {
+		this(context, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 * @param batchSize The number of resources removed per transaction.
+	 */
+	public BulkRemover(NeoConversationContext context, int batchSize) {
+		this.context = context;
+		this.gdbService = context.getConnection().getStore().getGdbService();
+		this.index = context.getResourceIndex();
+		this.statementContexts = new StatementContextIndex(context.getConnection().getIndexManager());
+		this.valueNodes = new ValueNodeAccess(context.getConnection().getStore());
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Remove all given resources.
+	 * @param ids The IDs of the resources.
+	 * @return The number of removed resources.
+	 */
+	public long removeAll(Iterable<? extends ResourceID> ids) {
+		final Iterator<? extends ResourceID> iterator = ids.iterator();
+		long removed = 0;
+		while (iterator.hasNext()) {
+			final Transaction tx = gdbService.beginTx();
+			try {
+				for (int i = 0; i < batchSize && iterator.hasNext(); i++) {
+					if (remove(iterator.next().getQualifiedName())) {
+						removed++;
+					}
+				}
+				tx.success();
+			} finally {
+				tx.finish();
+			}
+			LOGGER.debug("Bulk removal: {} resources removed.", removed);
+		}
+		return removed;
+	}
+
+	// ----------------------------------------------------
+
+	private boolean remove(QualifiedName qn) {
+		final Node node = index.findNeoNode(qn);
+		if (node == null) {
+			return false;
+		}
+		context.detach(qn);
+		final String uri = qn.toURI();
+		// the contexts of the node's statements, whose indexes contain the node.
+		final Set<String> contexts = new HashSet<String>();
+		for (Relationship rel : node.getRelationships(Direction.INCOMING)) {
+			final Node subject = rel.getStartNode();
+			final String predicate = (String) rel.getProperty(PREDICATE_URI, null);
+			final List<String> relContexts = contextsOf(rel);
+			statementContexts.remove(rel);
+			rel.delete();
+			if (subject.getId() == node.getId()) {
+				contexts.addAll(relContexts);
+			} else if (subject.hasProperty(PROPERTY_URI)) {
+				retractReference(subject, predicate, qn, relContexts);
+			}
+		}
+		final List<Node> values = new ArrayList<Node>();
+		for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+			if (rel.isType(ArasRelTypes.VALUE)) {
+				values.add(rel.getEndNode());
+			}
+			contexts.addAll(contextsOf(rel));
+			statementContexts.remove(rel);
+			rel.delete();
+		}
+		for (Node value : values) {
+			if (!value.hasRelationship(Direction.INCOMING)) {
+				valueNodes.delete(value);
+			}
+		}
+		index.removeFromAllIndexes(node, contexts);
+		node.delete();
+		LOGGER.debug("Removed resource {}.", uri);
+		return true;
+	}
+
+	/**
+	 * Remove the statement 'subject --predicate--> removed' from the indexes and from the subject's keeper,
+	 * if the subject is attached. The keeper's associations are not resolved for this.
+	 */
+	private void retractReference(Node subject, String predicate, QualifiedName removed, List<String> contexts) {
+		if (predicate != null) {
+			index.removeReference(subject, predicate, removed.toURI(), contexts);
+		}
+		final QualifiedName subjectQN = QualifiedName.create(subject.getProperty(PROPERTY_URI).toString());
+		final NeoAssociationKeeper keeper = context.getAssociationKeeper(subjectQN);
+		if (keeper != null && keeper.isAttached()) {
+			keeper.retractReferencesTo(removed);
+		}
+	}
+
+	private List<String> contextsOf(Relationship rel) {
+		if (!rel.hasProperty(CONTEXT_URI)) {
+			return Collections.emptyList();
+		}
+		return Arrays.asList((String[]) rel.getProperty(CONTEXT_URI));
+	}
+
+}
@@ -17,19 +17,25 @@
 package org.arastreju.bindings.neo4j.impl;
 
 import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
 import org.arastreju.sge.SNOPS;
 import org.arastreju.sge.context.Context;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.model.nodes.views.SNContext;
+import org.arastreju.sge.naming.QualifiedName;
 import org.arastreju.sge.persistence.ResourceResolver;
 import org.neo4j.graphdb.Relationship;
 
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
- *  Accessor for context information of relationships.
+ *  Accessor for context information of relationships. Contexts are resolved only once and cached,
+ *  as typically there are only a few contexts but a huge number of statements. The cache belongs
+ *  to one conversation, a context resource removed in this conversation is forgotten.
  * </p>
  *
  * <p>
@@ -43,6 +49,12 @@ public class ContextAccess implements NeoConstants {
 	public static final Context[] NO_CTX = new Context[0];
 	
 	private final ResourceResolver resolver;
+
+	private final StatementContextIndex statementContexts;
+
+	private final ConcurrentMap<String, Context> contextsByUri = new ConcurrentHashMap<String, Context>();
+
+	private final ConcurrentMap<QualifiedName, String> resolvedUris = new ConcurrentHashMap<QualifiedName, String>();
 	
 	// -----------------------------------------------------
 	
@@ -51,7 +63,17 @@ public class ContextAccess implements NeoConstants {
 	 * @param resolver The resource resolver.
 	 */
 	public ContextAccess(final ResourceResolver resolver) {
+		this(resolver, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param resolver The resource resolver.
+	 * @param statementContexts The index of statements by context, may be null.
+	 */
+	public ContextAccess(final ResourceResolver resolver, final StatementContextIndex statementContexts) {
 		this.resolver = resolver;
+		this.statementContexts = statementContexts;
 	}
 	
 	// -----------------------------------------------------
@@ -64,14 +86,15 @@ public class ContextAccess implements NeoConstants {
 		final Context[] ctxs = new Context[ctxUris.length];
 		for (int i = 0; i < ctxUris.length; i++) {
 			final String uri = ctxUris[i];
-			final ResourceNode node = resolver.findResource(SNOPS.qualify(uri));
-			if (node instanceof Context){
-				ctxs[i] = (Context) node;
-			} else if (node != null) {
-				ctxs[i] = new SNContext(node);
-			} else {
-				throw new IllegalStateException("Could not find context(s): " + Arrays.toString(ctxUris));
+			Context ctx = contextsByUri.get(uri);
+			if (ctx == null) {
+				ctx = findContext(uri);
+				if (ctx == null) {
+					throw new IllegalStateException("Could not find context(s): " + Arrays.toString(ctxUris));
+				}
+				contextsByUri.put(uri, ctx);
 			}
+			ctxs[i] = ctx;
 		}
 		return ctxs;
 	}
@@ -85,11 +108,51 @@ public class ContextAccess implements NeoConstants {
 		if (contexts != null && contexts.length > 0) {
 			String[] resolved = new String[contexts.length];
 			for (int i = 0; i < contexts.length; i++) {
-				final ResourceID ctx = resolver.resolve(contexts[i]);
-				resolved[i] = ctx.getQualifiedName().toURI();
+				final QualifiedName qn = contexts[i].getQualifiedName();
+				String uri = resolvedUris.get(qn);
+				if (uri == null) {
+					final ResourceID ctx = resolver.resolve(contexts[i]);
+					uri = ctx.getQualifiedName().toURI();
+					resolvedUris.put(qn, uri);
+				}
+				resolved[i] = uri;
 			}
 			relationship.setProperty(CONTEXT_URI, resolved);
-		} 
+		}
+		if (statementContexts != null) {
+			statementContexts.index(relationship);
+		}
+	}
+
+	/**
+	 * Forget a context, e.g. because its resource has been removed. It will be resolved again
+	 * on next access, i.e. recreated when statements are assigned to it.
+	 * @param qn The context's qualified name.
+	 */
+	public void forget(final QualifiedName qn) {
+		contextsByUri.remove(qn.toURI());
+		resolvedUris.remove(qn);
+	}
+
+	/**
+	 * Clear the cached contexts.
+	 */
+	public void clearCaches() {
+		contextsByUri.clear();
+		resolvedUris.clear();
+	}
+
+	// -----------------------------------------------------
+
+	private Context findContext(final String uri) {
+		final ResourceNode node = resolver.findResource(SNOPS.qualify(uri));
+		if (node instanceof Context){
+			return (Context) node;
+		} else if (node != null) {
+			return new SNContext(node);
+		} else {
+			return null;
+		}
 	}
 
 }
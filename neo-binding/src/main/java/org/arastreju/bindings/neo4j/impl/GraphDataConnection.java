@@ -3,9 +3,22 @@
  */
 package org.arastreju.bindings.neo4j.impl;
 
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.IndexRepairQueue;
 import org.arastreju.bindings.neo4j.tx.NeoTxProvider;
 import org.neo4j.graphdb.index.IndexManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * <p>
  *  Connection to a graph data store.
@@ -22,6 +35,12 @@ public class GraphDataConnection {
 	private final GraphDataStore store;
 	
 	private final NeoTxProvider txProvider;
+
+	private final IndexRegistry indexRegistry;
+
+	private final IndexRepairQueue indexRepairQueue;
+
+	private ExecutorService workers;
 	
 	// ----------------------------------------------------
 
@@ -32,6 +51,8 @@ public class GraphDataConnection {
 	public GraphDataConnection(GraphDataStore store) {
 		this.store = store;
 		this.txProvider = new NeoTxProvider(store.getGdbService());
+		this.indexRegistry = new IndexRegistry(store.getIndexManager(), store.getSettings());
+		this.indexRepairQueue = new IndexRepairQueue(store.getGdbService(), indexRegistry);
 	}
 	
 	// ----------------------------------------------------
@@ -53,6 +74,82 @@ public class GraphDataConnection {
     public IndexManager getIndexManager() {
         return store.getIndexManager();
     }
+
+    /**
+     * @return The registry of index handles shared by all conversations of this connection.
+     */
+    public IndexRegistry getIndexRegistry() {
+        return indexRegistry;
+    }
+
+    /**
+     * @return The queue of invalid index hits to be removed in the background.
+     */
+    public IndexRepairQueue getIndexRepairQueue() {
+        return indexRepairQueue;
+    }
+
+    /**
+     * Get the pool of worker threads for parallel read operations on this connection.
+     * The pool is created on first use and shut down when the connection is closed.
+     * Tasks should be run by {@link #invokeAll(Collection)} and {@link #submit(Callable)},
+     * which do not block the pool when called from a worker thread.
+     * @return The executor service.
+     */
+    public synchronized ExecutorService getWorkers() {
+        if (workers == null || workers.isShutdown()) {
+            workers = createWorkers();
+        }
+        return workers;
+    }
+
+    /**
+     * Create a new pool of worker threads, e.g. for a long running tool not to occupy the
+     * connection's shared workers. The caller has to shut the pool down.
+     * @return The executor service.
+     */
+    public ExecutorService createWorkers() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new WorkerThreadFactory());
+    }
+
+    /**
+     * Run all tasks on the worker threads and wait for them. If called from a worker thread the tasks
+     * are run one after another in the calling thread, as waiting for other workers might deadlock
+     * the pool.
+     * @param tasks The tasks.
+     * @return The futures of the tasks, all of them done.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        if (!isWorkerThread()) {
+            return getWorkers().invokeAll(tasks);
+        }
+        final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(runInline(task));
+        }
+        return futures;
+    }
+
+    /**
+     * Submit a task to the worker threads. If called from a worker thread the task is run
+     * immediately in the calling thread.
+     * @param task The task.
+     * @return The task's future.
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (isWorkerThread()) {
+            return runInline(task);
+        }
+        return getWorkers().submit(task);
+    }
+
+    /**
+     * @return true if the current thread is a worker thread of any connection.
+     */
+    public boolean isWorkerThread() {
+        return Thread.currentThread() instanceof WorkerThread;
+    }
 	
 	// ----------------------------------------------------
 	
@@ -65,7 +162,44 @@ public class GraphDataConnection {
 	/**
 	 * Close the connection and free all resources.
 	 */
-	public void close() {
+	public synchronized void close() {
+		if (workers != null) {
+			workers.shutdown();
+			workers = null;
+		}
+		indexRepairQueue.close();
+	}
+
+	// ----------------------------------------------------
+
+	private <T> Future<T> runInline(Callable<T> task) {
+		final FutureTask<T> future = new FutureTask<T>(task);
+		future.run();
+		return future;
+	}
+
+	// ----------------------------------------------------
+
+	private static class WorkerThread extends Thread {
+
+		WorkerThread(Runnable r, String name) {
+			super(r, name);
+		}
+	}
+
+	private static class WorkerThreadFactory implements ThreadFactory {
+
+		private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+		private final String prefix = "aras-neo4j-worker-" + POOL_COUNT.incrementAndGet() + "-";
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		public Thread newThread(Runnable r) {
+			final Thread thread = new WorkerThread(r, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 
 }
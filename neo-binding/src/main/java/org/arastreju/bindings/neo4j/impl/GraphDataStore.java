@@ -19,6 +19,7 @@ package org.arastreju.bindings.neo4j.impl;
 import java.io.File;
 import java.io.IOException;
 
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
 import org.arastreju.sge.ArastrejuProfile;
 import org.arastreju.sge.spi.ProfileCloseListener;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -45,6 +46,8 @@ public class GraphDataStore implements ProfileCloseListener {
 	private final GraphDatabaseService gdbService;
 	
 	private final IndexManager indexManager;
+
+	private final StoreSettings settings;
 	
 	// -----------------------------------------------------
 
@@ -60,13 +63,28 @@ public class GraphDataStore implements ProfileCloseListener {
 	 * @param dir The directory for the store.
 	 */
 	public GraphDataStore(final String dir) {
+		this(dir, new StoreSettings());
+	}
+
+	/**
+	 * Constructor. Creates a store using given directory.
+	 * @param dir The directory for the store.
+	 * @param settings The store's settings.
+	 */
+	public GraphDataStore(final String dir, final StoreSettings settings) {
+		this.settings = settings;
         if (new File(dir).exists()) {
             logger.info("Using existing Neo4jDataStore in {}.", dir);
         } else {
             logger.info("New Neo4jDataStore created in {}.", dir);
         }
-		gdbService = new EmbeddedGraphDatabase(dir); 
+		if (settings.getKernelConfig().isEmpty()) {
+			gdbService = new EmbeddedGraphDatabase(dir);
+		} else {
+			gdbService = new EmbeddedGraphDatabase(dir, settings.getKernelConfig());
+		}
 		indexManager = gdbService.index();
+		new StatementContextIndex(indexManager).initialize(gdbService);
 	}
 	
 	// -----------------------------------------------------
@@ -84,6 +102,13 @@ public class GraphDataStore implements ProfileCloseListener {
 	public IndexManager getIndexManager() {
 		return indexManager;
 	}
+
+	/**
+	 * @return the settings
+	 */
+	public StoreSettings getSettings() {
+		return settings;
+	}
 	
 	// -- ProfileCloseListener ----------------------------
 	
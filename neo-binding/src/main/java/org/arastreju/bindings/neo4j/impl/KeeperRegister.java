@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.sge.naming.QualifiedName;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * <p>
+ *  Thread safe register of the association keepers attached to a conversation.
+ * </p>
+ *
+ * <p>
+ *  An evicting register holds only the most recently used keepers strongly, up to its capacity.
+ *  All other keepers are held weakly and are evicted at the next garbage collection once they are
+ *  no longer referenced by any resource node, independent of memory pressure. As nobody can observe
+ *  such a keeper any more, it needs no detaching and will simply be re-resolved from the store on
+ *  the next access. Keepers still referenced are never evicted, so a resource keeps its identity
+ *  within the conversation.
+ * </p>
+ *
+ * <p>
+ *  The recently used keepers are approximated by the clock algorithm, so lookups take no lock: a
+ *  lookup only sets the reference bit of the keeper's entry. A keeper not held strongly takes the
+ *  slot at the clock hand, keepers found referenced there get a second chance.
+ * </p>
+ */
+public class KeeperRegister {
+
+	/**
+	 * Default number of keepers held strongly by an evicting register.
+	 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	// ----------------------------------------------------
+
+	private final ConcurrentMap<QualifiedName, Entry> entries = new ConcurrentHashMap<QualifiedName, Entry>();
+
+	private final ReferenceQueue<NeoAssociationKeeper> queue;
+
+	private final RecentlyUsed recent;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param evicting Flag if unused keepers may be evicted.
+	 */
+	public KeeperRegister(boolean evicting) {
+		this(evicting ? DEFAULT_CAPACITY : -1);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity The number of recently used keepers held strongly, or a negative value for a
+	 *                 register holding all keepers strongly.
+	 */
+	public KeeperRegister(int capacity) {
+		if (capacity >= 0) {
+			this.queue = new ReferenceQueue<NeoAssociationKeeper>();
+			this.recent = capacity > 0 ? new RecentlyUsed(capacity) : null;
+		} else {
+			this.queue = null;
+			this.recent = null;
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param qn The resource's qualified name.
+	 * @return The registered keeper or null.
+	 */
+	public NeoAssociationKeeper get(QualifiedName qn) {
+		final Entry entry = entries.get(qn);
+		final NeoAssociationKeeper keeper = entry != null ? entry.get() : null;
+		if (keeper != null) {
+			touch(entry, keeper);
+		}
+		return keeper;
+	}
+
+	/**
+	 * Register a keeper, replacing any existing one.
+	 * @param qn The resource's qualified name.
+	 * @param keeper The keeper.
+	 */
+	public void put(QualifiedName qn, NeoAssociationKeeper keeper) {
+		purge();
+		final Entry entry = newEntry(qn, keeper);
+		unpin(entries.put(qn, entry));
+		touch(entry, keeper);
+	}
+
+	/**
+	 * Register a keeper if there is no live keeper registered for the qualified name.
+	 * @param qn The resource's qualified name.
+	 * @param keeper The keeper.
+	 * @return The keeper already registered or null if the given keeper has been registered.
+	 */
+	public NeoAssociationKeeper putIfAbsent(QualifiedName qn, NeoAssociationKeeper keeper) {
+		purge();
+		final Entry candidate = newEntry(qn, keeper);
+		while (true) {
+			final Entry existing = entries.putIfAbsent(qn, candidate);
+			if (existing == null) {
+				touch(candidate, keeper);
+				return null;
+			}
+			final NeoAssociationKeeper registered = existing.get();
+			if (registered != null) {
+				touch(existing, registered);
+				return registered;
+			} else if (entries.replace(qn, existing, candidate)) {
+				touch(candidate, keeper);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Replace the registered keeper only if it is still the expected one.
+	 * @param qn The resource's qualified name.
+	 * @param expected The keeper expected to be registered.
+	 * @param keeper The new keeper.
+	 * @return true if the keeper has been replaced.
+	 */
+	public boolean replace(QualifiedName qn, NeoAssociationKeeper expected, NeoAssociationKeeper keeper) {
+		final Entry existing = entries.get(qn);
+		if (existing == null || existing.get() != expected) {
+			return false;
+		}
+		final Entry entry = newEntry(qn, keeper);
+		if (entries.replace(qn, existing, entry)) {
+			unpin(existing);
+			touch(entry, keeper);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param qn The resource's qualified name.
+	 * @return The removed keeper or null.
+	 */
+	public NeoAssociationKeeper remove(QualifiedName qn) {
+		final Entry removed = entries.remove(qn);
+		unpin(removed);
+		return removed != null ? removed.get() : null;
+	}
+
+	/**
+	 * @return A snapshot of all live keepers.
+	 */
+	public List<NeoAssociationKeeper> values() {
+		final List<NeoAssociationKeeper> result = new ArrayList<NeoAssociationKeeper>(entries.size());
+		for (Entry entry : entries.values()) {
+			final NeoAssociationKeeper keeper = entry.get();
+			if (keeper != null) {
+				result.add(keeper);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of registered entries, including evicted but not yet purged ones.
+	 */
+	public int size() {
+		purge();
+		return entries.size();
+	}
+
+	public void clear() {
+		for (Entry entry : entries.values()) {
+			unpin(entry);
+		}
+		entries.clear();
+		if (recent != null) {
+			recent.clear();
+		}
+		purge();
+	}
+
+	// ----------------------------------------------------
+
+	private Entry newEntry(QualifiedName qn, NeoAssociationKeeper keeper) {
+		if (queue != null) {
+			return new WeakEntry(qn, keeper, queue);
+		} else {
+			return new StrongEntry(keeper);
+		}
+	}
+
+	private void touch(Entry entry, NeoAssociationKeeper keeper) {
+		if (recent != null) {
+			recent.touch((WeakEntry) entry, keeper);
+		}
+	}
+
+	private void unpin(Entry entry) {
+		if (entry instanceof WeakEntry) {
+			((WeakEntry) entry).pinned = null;
+		}
+	}
+
+	private void purge() {
+		if (queue == null) {
+			return;
+		}
+		Reference<? extends NeoAssociationKeeper> ref;
+		while ((ref = queue.poll()) != null) {
+			final WeakEntry entry = (WeakEntry) ref;
+			entries.remove(entry.qn, entry);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private interface Entry {
+		NeoAssociationKeeper get();
+	}
+
+	private static class StrongEntry implements Entry {
+
+		private final NeoAssociationKeeper keeper;
+
+		StrongEntry(NeoAssociationKeeper keeper) {
+			this.keeper = keeper;
+		}
+
+		public NeoAssociationKeeper get() {
+			return keeper;
+		}
+	}
+
+	private static class WeakEntry extends WeakReference<NeoAssociationKeeper> implements Entry {
+
+		private final QualifiedName qn;
+
+		/**
+		 * The strong reference to the keeper while the entry is in a slot of the recently used.
+		 * Not private, as it is updated by a field updater.
+		 */
+		volatile NeoAssociationKeeper pinned;
+
+		/**
+		 * The reference bit of the clock algorithm.
+		 */
+		volatile boolean referenced;
+
+		WeakEntry(QualifiedName qn, NeoAssociationKeeper keeper, ReferenceQueue<NeoAssociationKeeper> queue) {
+			super(keeper, queue);
+			this.qn = qn;
+		}
+	}
+
+	/**
+	 * Strong references to the recently used keepers, in a ring of slots swept by the clock hand.
+	 */
+	private static class RecentlyUsed {
+
+		private static final AtomicReferenceFieldUpdater<WeakEntry, NeoAssociationKeeper> PINNED =
+				AtomicReferenceFieldUpdater.newUpdater(WeakEntry.class, NeoAssociationKeeper.class, "pinned");
+
+		private final AtomicReferenceArray<WeakEntry> slots;
+
+		private final AtomicInteger hand = new AtomicInteger();
+
+		RecentlyUsed(int capacity) {
+			this.slots = new AtomicReferenceArray<WeakEntry>(capacity);
+		}
+
+		void touch(WeakEntry entry, NeoAssociationKeeper keeper) {
+			if (entry.pinned != null) {
+				if (!entry.referenced) {
+					entry.referenced = true;
+				}
+				return;
+			}
+			if (!PINNED.compareAndSet(entry, null, keeper)) {
+				// pinned concurrently.
+				return;
+			}
+			final int length = slots.length();
+			for (int i = 0; true; i++) {
+				final int slot = (hand.getAndIncrement() & Integer.MAX_VALUE) % length;
+				final WeakEntry current = slots.get(slot);
+				if (current != null && current.referenced && i < length) {
+					// second chance, evicted on the next round.
+					current.referenced = false;
+				} else if (slots.compareAndSet(slot, current, entry)) {
+					if (current != null) {
+						current.pinned = null;
+					}
+					return;
+				}
+			}
+		}
+
+		void clear() {
+			for (int i = 0; i < slots.length(); i++) {
+				slots.set(i, null);
+			}
+		}
+	}
+
+}
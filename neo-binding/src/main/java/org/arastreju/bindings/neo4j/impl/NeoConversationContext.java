@@ -18,18 +18,25 @@ package org.arastreju.bindings.neo4j.impl;
 
 import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
 import org.arastreju.bindings.neo4j.tx.NeoTxProvider;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.associations.AssociationKeeper;
+import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.naming.QualifiedName;
 import org.arastreju.sge.spi.abstracts.AbstractConversationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * <p>
@@ -46,12 +53,14 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NeoConversationContext.class);
 
-	private final Map<QualifiedName, NeoAssociationKeeper> register = new HashMap<QualifiedName, NeoAssociationKeeper>();
+	private final KeeperRegister register;
 	
 	private final AssociationHandler handler;
 
     private final GraphDataConnection connection;
 
+    private ResourceIndex resourceIndex;
+
     // ----------------------------------------------------
 	
 	/**
@@ -59,12 +68,47 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 	 * @param connection The connection.
 	 */
 	public NeoConversationContext(GraphDataConnection connection) {
+        this(connection, false);
+	}
+
+    /**
+     * Creates a new Working Context.
+     * @param connection The connection.
+     * @param evicting Flag if keepers not referenced any more may be evicted from the register.
+     *                 Recommended for long running conversations touching many nodes.
+     */
+    public NeoConversationContext(GraphDataConnection connection, boolean evicting) {
+        this(connection, new KeeperRegister(evicting));
+    }
+
+    /**
+     * Creates a new Working Context evicting keepers not referenced any more.
+     * @param connection The connection.
+     * @param capacity The number of recently used keepers which are never evicted.
+     */
+    public NeoConversationContext(GraphDataConnection connection, int capacity) {
+        this(connection, new KeeperRegister(capacity));
+    }
+
+    private NeoConversationContext(GraphDataConnection connection, KeeperRegister register) {
         this.connection = connection;
+        this.register = register;
         this.handler = new AssociationHandler(connection, this);
-	}
+    }
 
 	// ----------------------------------------------------
 	
+	/**
+	 * Get the resource index of this conversation, created on first use.
+	 * @return The resource index.
+	 */
+	public synchronized ResourceIndex getResourceIndex() {
+		if (resourceIndex == null) {
+			resourceIndex = new ResourceIndex(this);
+		}
+		return resourceIndex;
+	}
+
 	/**
 	 * @param qn The resource's qualified name.
 	 * @return The association keeper or null;
@@ -84,11 +128,36 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 	 */
 	public void attach(QualifiedName qn, NeoAssociationKeeper keeper) {
 		assertActive();
+		keeper.setConversationContext(this);
 		register.put(qn, keeper);
+	}
+
+	/**
+	 * Attach the keeper only if there is no attached keeper registered for this qualified name yet.
+	 * Concurrent callers resolving the same resource will all receive the same keeper.
+	 * @param qn The resource's qualified name.
+	 * @param keeper The candidate keeper to be attached.
+	 * @return The keeper registered for the qualified name, either the given one or an already attached one.
+	 */
+	public NeoAssociationKeeper attachIfAbsent(QualifiedName qn, NeoAssociationKeeper keeper) {
+		assertActive();
 		keeper.setConversationContext(this);
+		while (true) {
+			final NeoAssociationKeeper registered = register.putIfAbsent(qn, keeper);
+			if (registered == null) {
+				return keeper;
+			} else if (registered.isAttached()) {
+				keeper.setConversationContext(null);
+				return registered;
+			} else if (register.replace(qn, registered, keeper)) {
+				return keeper;
+			}
+		}
 	}
 	
 	/**
+	 * Detach the resource's keeper. All removals detach the removed resources, so the resource
+	 * is also dropped from the caches of resolved predicates and contexts.
 	 * @param qn The resource's qualified name.
 	 */
 	public void detach(QualifiedName qn) {
@@ -97,6 +166,7 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 		if (removed != null) {
 			removed.detach();
 		}
+		handler.forget(qn);
 	}
 	
 	// ----------------------------------------------------
@@ -110,6 +180,40 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 		handler.resolveAssociations(keeper);
 	}
 
+	/**
+	 * Resolve the associations of all given nodes in parallel, using the connection's worker threads.
+	 * The resulting statements are the same as if each node's associations were accessed one by one.
+	 * Nodes not attached to this conversation are skipped.
+	 * @param nodes The nodes to be prefetched.
+	 */
+	public void prefetchAssociations(Collection<? extends ResourceNode> nodes) {
+		assertActive();
+		final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(nodes.size());
+		for (ResourceNode node : nodes) {
+			final AssociationKeeper keeper = NeoAssocKeeperAccess.getAssociationKeeper(node);
+			if (keeper instanceof NeoAssociationKeeper && keeper.isAttached()) {
+				tasks.add(new Callable<Object>() {
+					public Object call() {
+						return keeper.getAssociations();
+					}
+				});
+			}
+		}
+		if (tasks.isEmpty()) {
+			return;
+		}
+		try {
+			for (Future<Object> future : connection.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warn("Interrupted while prefetching associations.");
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Could not prefetch associations.", e.getCause());
+		}
+	}
+
     /**
      * Get the incoming statements of the given node.
      * @param object The node which is the object of the searched statements.
@@ -147,6 +251,18 @@ public class NeoConversationContext extends AbstractConversationContext implemen
 		return handler.removeAssociation(keeper, assoc);
 	}
 
+	/**
+	 * Add and remove associations of given keeper in one transaction.
+	 * @param keeper The keeper.
+	 * @param toAdd The associations to be added.
+	 * @param toRemove The associations to be removed.
+	 */
+	public void applyChanges(final NeoAssociationKeeper keeper, final Collection<? extends Statement> toAdd,
+							 final Collection<? extends Statement> toRemove) {
+		assertActive();
+		handler.applyChanges(keeper, toAdd, toRemove);
+	}
+
     // ----------------------------------------------------
 
     public NeoTxProvider getTxProvider() {
@@ -165,6 +281,7 @@ public class NeoConversationContext extends AbstractConversationContext implemen
             keeper.detach();
         }
         register.clear();
+        handler.clearCaches();
     }
 
 }
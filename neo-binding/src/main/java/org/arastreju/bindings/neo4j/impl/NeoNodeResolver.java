@@ -44,10 +44,13 @@ public class NeoNodeResolver {
 		final QualifiedName qn = QualifiedName.create(neoNode.getProperty(NeoConstants.PROPERTY_URI).toString());
 		NeoAssociationKeeper keeper = conversationContext.getAssociationKeeper(qn);
 		if (keeper == null){
-            keeper = new NeoAssociationKeeper(SNOPS.id(qn), neoNode);
-            conversationContext.attach(qn, keeper);
+            keeper = conversationContext.attachIfAbsent(qn, new NeoAssociationKeeper(SNOPS.id(qn), neoNode));
 		}
 		return new SNResourceNeo(qn, keeper);	
 	}
 
+	public NeoConversationContext getConversationContext() {
+		return conversationContext;
+	}
+
 }
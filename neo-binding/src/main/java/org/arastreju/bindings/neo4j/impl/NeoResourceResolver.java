@@ -3,18 +3,25 @@
  */
 package org.arastreju.bindings.neo4j.impl;
 
+import org.arastreju.bindings.neo4j.FetchPlan;
 import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
 import org.arastreju.bindings.neo4j.extensions.SNResourceNeo;
-import org.arastreju.bindings.neo4j.index.ResourceIndex;
 import org.arastreju.sge.SNOPS;
 import org.arastreju.sge.model.ResourceID;
+import org.arastreju.sge.model.Statement;
 import org.arastreju.sge.model.associations.AssociationKeeper;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.naming.QualifiedName;
 import org.arastreju.sge.persistence.ResourceResolver;
 import org.neo4j.graphdb.Node;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * <p>
  *  Simple implementation of a resource resolver.
@@ -54,6 +61,50 @@ public class NeoResourceResolver implements ResourceResolver {
 		}
 	}
 	
+	/**
+	 * Find the resource and eagerly load the part of the graph declared by the fetch plan.
+	 * @param qn The resource's qualified name.
+	 * @param plan The fetch plan.
+	 * @return The resource node or null.
+	 */
+	public ResourceNode findResource(final QualifiedName qn, final FetchPlan plan) {
+		final ResourceNode node = findResource(qn);
+		if (node != null) {
+			fetch(node, plan);
+		}
+		return node;
+	}
+
+	/**
+	 * Eagerly load the part of the graph around an attached node declared by the fetch plan.
+	 * The graph is traversed hop by hop, resolving all nodes of one hop in parallel.
+	 * @param node The start node.
+	 * @param plan The fetch plan.
+	 */
+	public void fetch(final ResourceNode node, final FetchPlan plan) {
+		final Set<QualifiedName> visited = new HashSet<QualifiedName>();
+		visited.add(node.getQualifiedName());
+		List<ResourceNode> current = Collections.singletonList(node);
+		for (int hop = 0; !current.isEmpty(); hop++) {
+			conversationContext.prefetchAssociations(current);
+			if (hop >= plan.getDepth()) {
+				break;
+			}
+			final List<ResourceNode> next = new ArrayList<ResourceNode>();
+			for (ResourceNode subject : current) {
+				for (Statement stmt : subject.getAssociations()) {
+					if (stmt.getObject().isResourceNode() && plan.follows(hop, stmt.getPredicate())) {
+						final ResourceNode object = stmt.getObject().asResource();
+						if (visited.add(object.getQualifiedName())) {
+							next.add(object);
+						}
+					}
+				}
+			}
+			current = next;
+		}
+	}
+	
 	@Override
 	public ResourceNode resolve(final ResourceID resource) {
 		final ResourceNode node = resource.asResource();
@@ -82,7 +133,7 @@ public class NeoResourceResolver implements ResourceResolver {
 		if (registered != null && registered.isAttached()) {
 			return registered;
 		}
-		final Node neoNode = new ResourceIndex(conversationContext).findNeoNode(qn);
+		final Node neoNode = conversationContext.getResourceIndex().findNeoNode(qn);
 		if (neoNode != null) {
 			return createKeeper(qn, neoNode);
 		} else {
@@ -94,7 +145,6 @@ public class NeoResourceResolver implements ResourceResolver {
 
 	protected NeoAssociationKeeper createKeeper(QualifiedName qn, Node neoNode) {
 		final NeoAssociationKeeper keeper = new NeoAssociationKeeper(SNOPS.id(qn), neoNode);
-		conversationContext.attach(qn, keeper);
-		return keeper;
+		return conversationContext.attachIfAbsent(qn, keeper);
 	}
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.sge.model.Statement;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *  Scan over all resource nodes of a store by ranges of node IDs. Nodes are read directly by ID,
+ *  value nodes are skipped by checking for the URI property only. The ranges can be scanned in
+ *  parallel on the connection's worker threads, each range emitting its own nodes or statements.
+ * </p>
+ *
+ * <p>
+ *  Visitors are called concurrently from several threads and must be thread safe. Parallel scans
+ *  block until all ranges are done. Started from a worker thread, the ranges are scanned one after
+ *  another in that thread.
+ * </p>
+ */
+public class NodeRangeScan implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NodeRangeScan.class);
+
+	public static final int DEFAULT_RANGE_SIZE = 50000;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Callback for resource nodes.
+	 */
+	public interface NodeVisitor {
+		void visit(Node node);
+	}
+
+	/**
+	 * Callback for statements.
+	 */
+	public interface StatementVisitor {
+		void visit(Statement statement);
+	}
+
+	// ----------------------------------------------------
+
+	private final GraphDataConnection connection;
+
+	private final GraphDatabaseService gdbService;
+
+	private final int rangeSize;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param connection The connection.
+	 */
+	public NodeRangeScan(GraphDataConnection connection) {
+		this(connection, DEFAULT_RANGE_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param connection The connection.
+	 * @param rangeSize The number of node IDs per range for parallel scans.
+	 */
+	public NodeRangeScan(GraphDataConnection connection, int rangeSize) {
+		this.connection = connection;
+		this.gdbService = connection.getStore().getGdbService();
+		this.rangeSize = rangeSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Split the node ID space into ranges.
+	 * @return The ranges.
+	 */
+	public List<NodeRange> ranges() {
+		final long highest = getHighestNodeId();
+		final List<NodeRange> ranges = new ArrayList<NodeRange>();
+		for (long start = 0; start <= highest; start += rangeSize) {
+			ranges.add(new NodeRange(start, Math.min(start + rangeSize, highest + 1)));
+		}
+		return ranges;
+	}
+
+	/**
+	 * @return A range over all node IDs currently in use.
+	 */
+	public NodeRange all() {
+		return from(0);
+	}
+
+	/**
+	 * @param start The first node ID.
+	 * @return A range from given node ID to the highest node ID currently in use.
+	 */
+	public NodeRange from(long start) {
+		return new NodeRange(start, getHighestNodeId() + 1);
+	}
+
+	/**
+	 * Visit all resource nodes in parallel.
+	 * @param visitor The thread safe visitor.
+	 * @return The number of visited nodes.
+	 */
+	public long scanNodes(final NodeVisitor visitor) {
+		final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (final NodeRange range : ranges()) {
+			tasks.add(new Callable<Long>() {
+				public Long call() {
+					long count = 0;
+					for (Iterator<Node> it = range.resourceNodes(); it.hasNext();) {
+						visitor.visit(it.next());
+						count++;
+					}
+					return count;
+				}
+			});
+		}
+		return execute(tasks);
+	}
+
+	/**
+	 * Visit all statements in parallel.
+	 * @param visitor The thread safe visitor.
+	 * @return The number of visited statements.
+	 */
+	public long scanStatements(final StatementVisitor visitor) {
+		final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (final NodeRange range : ranges()) {
+			tasks.add(new Callable<Long>() {
+				public Long call() {
+					final RelationshipConverter converter = new RelationshipConverter();
+					long count = 0;
+					for (Iterator<Node> it = range.resourceNodes(); it.hasNext();) {
+						for (Relationship rel : it.next().getRelationships(Direction.OUTGOING)) {
+							if (rel.hasProperty(PREDICATE_URI)) {
+								visitor.visit(converter.toStatement(rel));
+								count++;
+							}
+						}
+					}
+					return count;
+				}
+			});
+		}
+		return execute(tasks);
+	}
+
+	// ----------------------------------------------------
+
+	private long execute(List<Callable<Long>> tasks) {
+		long total = 0;
+		try {
+			for (Future<Long> future : connection.invokeAll(tasks)) {
+				total += future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Scan has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Scan failed.", e.getCause());
+		}
+		LOGGER.debug("Scanned {} ranges, {} elements visited.", tasks.size(), total);
+		return total;
+	}
+
+	private long getHighestNodeId() {
+		if (!(gdbService instanceof GraphDatabaseAPI)) {
+			throw new IllegalStateException("Node range scans not supported by " + gdbService.getClass());
+		}
+		return ((GraphDatabaseAPI) gdbService).getNodeManager().getHighestPossibleIdInUse(Node.class);
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * A range of node IDs, start inclusive, end exclusive.
+	 */
+	public class NodeRange {
+
+		private final long start;
+
+		private final long end;
+
+		private NodeRange(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+
+		/**
+		 * @return Iterator over the resource nodes in this range, skipping deleted and value nodes.
+		 */
+		public Iterator<Node> resourceNodes() {
+			return new Iterator<Node>() {
+
+				private long current = start;
+
+				private Node next;
+
+				public boolean hasNext() {
+					while (next == null && current < end) {
+						try {
+							final Node candidate = gdbService.getNodeById(current++);
+							if (candidate.hasProperty(PROPERTY_URI)) {
+								next = candidate;
+							}
+						} catch (NotFoundException e) {
+							// ID not in use.
+						}
+					}
+					return next != null;
+				}
+
+				public Node next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final Node result = next;
+					next = null;
+					return result;
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public String toString() {
+			return "NodeRange[" + start + ", " + end + ")";
+		}
+	}
+
+}
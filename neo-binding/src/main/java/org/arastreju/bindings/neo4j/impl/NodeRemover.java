@@ -16,20 +16,38 @@
  */
 package org.arastreju.bindings.neo4j.impl;
 
+import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.bindings.neo4j.util.LongIdSet;
+import org.arastreju.bindings.neo4j.util.LongQueue;
+import org.arastreju.sge.naming.QualifiedName;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * <p>
- *  Remover of Neo Nodes from datastore.
- *  TODO: always remove value nodes
+ *  Remover of Neo Nodes from datastore. Value nodes left without any incoming relationship
+ *  are always removed, other nodes only if removal is cascaded.
+ * </p>
+ *
+ * <p>
+ *  Removal is breadth first and iterative, so cascades of any depth can be removed.
+ *  {@link #remove(Node, boolean)} removes all nodes in one transaction. For very large cascades
+ *  {@link #removeBatched(Node, boolean)} commits the deletions in batches of bounded size, each
+ *  batch in its own transaction, so the removal is not atomic. This only holds if no transaction
+ *  is running on the calling thread: otherwise Neo4j nests the batches into that transaction and
+ *  all deletions are committed at once, when the outer transaction finishes.
  * </p>
  *
  * <p>
@@ -38,10 +56,17 @@ import java.util.Set;
  *
  * @author Oliver Tigges
  */
-public class NodeRemover {
+public class NodeRemover implements NeoConstants {
+
+	public static final int DEFAULT_BATCH_SIZE = 5000;
+
+	// -----------------------------------------------------
 
 	private final ResourceIndex index;
+    private final StatementContextIndex statementContexts;
+    private final ValueNodeAccess valueNodes;
     private final NeoConversationContext context;
+    private final int batchSize;
 
     // -----------------------------------------------------
 
@@ -50,47 +75,138 @@ public class NodeRemover {
 	 * @param context The context.
 	 */
 	public NodeRemover(NeoConversationContext context) {
-        this.context = context;
-        this.index = new ResourceIndex(context.getConnection(), context);
+        this(context, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param context The context.
+	 * @param batchSize The maximum number of deleted nodes and relationships per transaction of a
+	 *                  batched removal.
+	 */
+	public NodeRemover(NeoConversationContext context, int batchSize) {
+		this.context = context;
+		this.index = context.getResourceIndex();
+		this.statementContexts = new StatementContextIndex(context.getConnection().getIndexManager());
+		this.valueNodes = new ValueNodeAccess(context.getConnection().getStore());
+		this.batchSize = batchSize;
 	}
 	
 	// -----------------------------------------------------
 
     /**
-     * Remove the given node.
+     * Remove the given node in one transaction.
      * @param neoNode The node.
      * @param cascade Flag if removing shall be cascaded.
      * @return The set of removed nodes.
      */
     public Set<Node> remove(final Node neoNode, final boolean cascade) {
-        final Set<Node> deleted = new HashSet<Node>();
-        remove(neoNode, deleted, cascade);
-        return deleted;
+        final Set<Node> removed = new HashSet<Node>();
+        remove(neoNode, cascade, Integer.MAX_VALUE, removed);
+        return removed;
+    }
+
+    /**
+     * Remove the given node, committing the deletions in batches.
+     * @param neoNode The node.
+     * @param cascade Flag if removing shall be cascaded.
+     * @return The number of removed nodes.
+     */
+    public long removeBatched(final Node neoNode, final boolean cascade) {
+        return remove(neoNode, cascade, batchSize, null);
     }
 
 	// -----------------------------------------------------
 
-	private void remove(final Node neoNode, final Set<Node> deleted, final boolean cascade) {
-		// 2nd: delete relations
+    /**
+     * Remove the node and the cascade, breadth first.
+     * @param removedNodes The set collecting the removed nodes, may be null.
+     * @return The number of removed nodes.
+     */
+    private long remove(final Node neoNode, final boolean cascade, final int maxInBatch, final Set<Node> removedNodes) {
+        final GraphDatabaseService gdbService = neoNode.getGraphDatabase();
+        final LongIdSet visited = new LongIdSet();
+        final LongQueue queue = new LongQueue();
+        visited.add(neoNode.getId());
+        queue.add(neoNode.getId());
+
+        long removed = 0;
+        int inBatch = 0;
+        Transaction tx = gdbService.beginTx();
+        try {
+            while (!queue.isEmpty()) {
+                final Node current = getNode(gdbService, queue.removeFirst());
+                if (current == null) {
+                    continue;
+                }
+                inBatch += remove(current, visited, queue, cascade);
+                removed++;
+                if (removedNodes != null) {
+                    removedNodes.add(current);
+                }
+                if (inBatch >= maxInBatch) {
+                    tx.success();
+                    tx.finish();
+                    tx = gdbService.beginTx();
+                    inBatch = 0;
+                }
+            }
+            tx.success();
+        } finally {
+            tx.finish();
+        }
+        return removed;
+    }
+
+	/**
+	 * Remove a single node and enqueue the nodes to be removed next.
+	 * @return The number of deleted nodes and relationships.
+	 */
+	private int remove(final Node neoNode, final LongIdSet visited, final LongQueue queue, final boolean cascade) {
+		// 1st: delete relations
 		final List<Node> cascading = new ArrayList<Node>();
+		final Set<String> contexts = new HashSet<String>();
+		int deleted = 0;
 		for (Relationship rel : neoNode.getRelationships()) {
-			cascading.add(rel.getEndNode());
+			if (rel.hasProperty(CONTEXT_URI)) {
+				contexts.addAll(Arrays.asList((String[]) rel.getProperty(CONTEXT_URI)));
+			}
+			final Node end = rel.getEndNode();
+			if (!visited.contains(end.getId())) {
+				cascading.add(end);
+			}
+			statementContexts.remove(rel);
 			rel.delete();
+			deleted++;
 		}
 		
-		// 3rd: delete neo node
-		index.removeFromIndex(neoNode);
-		neoNode.delete();
-		deleted.add(neoNode);
-
-		// 4th: cascade
-		if (cascade) {
-			for(Node c : cascading) {
-				if (!deleted.contains(c) && !c.hasRelationship(Direction.INCOMING)) {
-					remove(c, deleted, cascade);
+		// 2nd: delete neo node
+		index.removeFromAllIndexes(neoNode, contexts);
+		if (neoNode.hasProperty(PROPERTY_URI)) {
+			context.detach(QualifiedName.create(neoNode.getProperty(PROPERTY_URI).toString()));
+			neoNode.delete();
+		} else {
+			valueNodes.delete(neoNode);
+		}
+		deleted++;
+
+		// 3rd: cascade
+		for(Node c : cascading) {
+			if (!c.hasRelationship(Direction.INCOMING) && (cascade || !c.hasProperty(PROPERTY_URI))) {
+				if (visited.add(c.getId())) {
+					queue.add(c.getId());
 				}
 			}
 		}
+		return deleted;
+	}
+
+	private Node getNode(GraphDatabaseService gdbService, long id) {
+		try {
+			return gdbService.getNodeById(id);
+		} catch (NotFoundException e) {
+			return null;
+		}
 	}
 
 }
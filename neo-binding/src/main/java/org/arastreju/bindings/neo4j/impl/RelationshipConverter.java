@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.extensions.SNValueNeo;
+import org.arastreju.sge.context.Context;
+import org.arastreju.sge.model.DetachedStatement;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.model.Statement;
+import org.arastreju.sge.model.StatementMetaInfo;
+import org.arastreju.sge.model.nodes.SNResource;
+import org.arastreju.sge.model.nodes.SemanticNode;
+import org.arastreju.sge.model.nodes.views.SNContext;
+import org.arastreju.sge.naming.QualifiedName;
+import org.neo4j.graphdb.Relationship;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *  Converts relationships directly to detached statements, without resolving any nodes or registering
+ *  association keepers in a conversation. Used for bulk reading, e.g. exports.
+ *  Instances are not thread safe.
+ * </p>
+ */
+public class RelationshipConverter implements NeoConstants {
+
+	private final Map<String, Context> contexts = new HashMap<String, Context>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Check if the relationship represents a statement.
+	 * @param rel The relationship.
+	 * @return true if it is a statement.
+	 */
+	public boolean isStatement(Relationship rel) {
+		return rel.hasProperty(PREDICATE_URI) && rel.getStartNode().hasProperty(PROPERTY_URI);
+	}
+
+	/**
+	 * Convert the relationship to a statement.
+	 * @param rel The relationship.
+	 * @return The detached statement.
+	 */
+	public Statement toStatement(Relationship rel) {
+		final SimpleResourceID subject = new SimpleResourceID(rel.getStartNode().getProperty(PROPERTY_URI).toString());
+		final SimpleResourceID predicate = new SimpleResourceID(rel.getProperty(PREDICATE_URI).toString());
+		final SemanticNode object;
+		if (rel.isType(ArasRelTypes.REFERENCE)) {
+			object = new SimpleResourceID(rel.getEndNode().getProperty(PROPERTY_URI).toString());
+		} else {
+			object = new SNValueNeo(rel.getEndNode());
+		}
+		final StatementMetaInfo mi = new StatementMetaInfo(getContexts(rel), new Date((Long) rel.getProperty(TIMESTAMP, 0L)));
+		return new DetachedStatement(subject, predicate, object, mi);
+	}
+
+	/**
+	 * Get the contexts of the relationship.
+	 * @param rel The relationship.
+	 * @return The contexts.
+	 */
+	public Context[] getContexts(Relationship rel) {
+		if (!rel.hasProperty(CONTEXT_URI)) {
+			return ContextAccess.NO_CTX;
+		}
+		final String[] uris = (String[]) rel.getProperty(CONTEXT_URI);
+		final Context[] result = new Context[uris.length];
+		for (int i = 0; i < uris.length; i++) {
+			Context ctx = contexts.get(uris[i]);
+			if (ctx == null) {
+				ctx = new SNContext(new SNResource(QualifiedName.create(uris[i])));
+				contexts.put(uris[i], ctx);
+			}
+			result[i] = ctx;
+		}
+		return result;
+	}
+
+}
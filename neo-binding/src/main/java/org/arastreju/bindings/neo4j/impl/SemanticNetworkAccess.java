@@ -34,7 +34,8 @@ import org.neo4j.graphdb.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -71,7 +72,7 @@ public class SemanticNetworkAccess implements NeoConstants {
 	public SemanticNetworkAccess(final GraphDataConnection connection, final NeoConversationContext conversationContext) {
 		this.connection = connection;
 		this.conversationContext = conversationContext;
-		this.index = new ResourceIndex(connection, conversationContext);
+		this.index = conversationContext.getResourceIndex();
 	}
 
 	// -----------------------------------------------------
@@ -97,7 +98,7 @@ public class SemanticNetworkAccess implements NeoConstants {
 		tx().doTransacted(new TxAction() {
 			public void execute() {
 				// 2nd: check if node for qualified name exists and has to be merged
-				final AssociationKeeper attachedKeeper = findAssociationKeeper(resource.getQualifiedName());
+				final NeoAssociationKeeper attachedKeeper = findAssociationKeeper(resource.getQualifiedName());
 				if (attachedKeeper != null){
 					merge(attachedKeeper, resource);
 				} else {
@@ -136,7 +137,7 @@ public class SemanticNetworkAccess implements NeoConstants {
 	}
 	
 	/**
-	 * Remove the node.
+	 * Remove the node in one transaction.
 	 * @param id The ID.
 	 */
 	public void remove(final ResourceID id) {
@@ -145,7 +146,7 @@ public class SemanticNetworkAccess implements NeoConstants {
             // Resource with given ID does not exist (any more).
             return;
         }
-		registered.getAssociations().clear();
+		registered.clearAssociations();
         conversationContext.detach(id.getQualifiedName());
 		tx().doTransacted(new TxAction() {
 			public void execute() {
@@ -154,6 +155,15 @@ public class SemanticNetworkAccess implements NeoConstants {
 		});
 	}
 	
+	/**
+	 * Remove all given nodes in batched transactions.
+	 * @param ids The IDs.
+	 * @return The number of removed nodes.
+	 */
+	public long removeAll(final Iterable<? extends ResourceID> ids) {
+		return new BulkRemover(conversationContext).removeAll(ids);
+	}
+	
 	// -----------------------------------------------------
 	
 	/**
@@ -202,27 +212,34 @@ public class SemanticNetworkAccess implements NeoConstants {
 	
 	/**
 	 * Merges all associations from the 'changed' node to the 'attached' keeper and put's keeper in 'changed'.
+	 * The differences are computed once and applied in a single transaction.
 	 * @param attached The currently attached keeper for this resource.
 	 * @param changed An unattached node referencing the same resource.
 	 */
-	protected void merge(final AssociationKeeper attached, final ResourceNode changed) {
-		final Set<Statement> currentAssocs = new HashSet<Statement>(attached.getAssociations());
+	protected void merge(final NeoAssociationKeeper attached, final ResourceNode changed) {
+		final Set<Statement> currentAssocs = attached.getAssociations();
 		final AssociationKeeper detached = NeoAssocKeeperAccess.getAssociationKeeper(changed);
-		for (Statement toBeRemoved : detached.getAssociationsForRemoval()) {
-			attached.removeAssociation(toBeRemoved);
+		final List<Statement> toBeRemoved = new ArrayList<Statement>();
+		for (Statement assoc : detached.getAssociationsForRemoval()) {
+			if (currentAssocs.contains(assoc)) {
+				toBeRemoved.add(assoc);
+			}
 		}
+		final List<Statement> toBeAdded = new ArrayList<Statement>();
 		for(Statement assoc : detached.getAssociations()){
 			if (!currentAssocs.contains(assoc)){
-				attached.addAssociation(assoc);
+				toBeAdded.add(assoc);
 			}
 		}
+		if (!toBeAdded.isEmpty() || !toBeRemoved.isEmpty()) {
+			conversationContext.applyChanges(attached, toBeAdded, toBeRemoved);
+		}
 		NeoAssocKeeperAccess.setAssociationKeeper(changed, attached);
 	}
 	
 	protected NeoAssociationKeeper createKeeper(QualifiedName qn, Node neoNode) {
 		final NeoAssociationKeeper keeper = new NeoAssociationKeeper(SNOPS.id(qn), neoNode);
-		conversationContext.attach(qn, keeper);
-		return keeper;
+		return conversationContext.attachIfAbsent(qn, keeper);
 	}
 	
 	// ----------------------------------------------------
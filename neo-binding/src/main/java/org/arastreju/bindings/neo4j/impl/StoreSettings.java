@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.sge.ArastrejuProfile;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *  Settings of a graph data store, read from the Arastreju profile.
+ * </p>
+ */
+public class StoreSettings {
+
+	/**
+	 * Profile property: if 'true', literal values are stored in shared value nodes,
+	 * deduplicated by datatype, value and locale.
+	 */
+	public static final String KEY_SHARE_VALUE_NODES = "aras:neo4j:share-value-nodes";
+
+	/**
+	 * Profile property: configuration for newly created node indexes, e.g. 'to_lower_case=true'.
+	 * Given as comma separated list of key=value pairs. Existing indexes keep their configuration.
+	 */
+	public static final String KEY_INDEX_CONFIG = "aras:neo4j:index-config";
+
+	/**
+	 * Profile property: configuration passed to the Neo4j kernel, e.g. Lucene searcher and writer
+	 * cache sizes. Given as comma separated list of key=value pairs.
+	 */
+	public static final String KEY_KERNEL_CONFIG = "aras:neo4j:kernel-config";
+
+	/**
+	 * Profile property: if 'false', queries also see the uncommitted changes of the current
+	 * transaction. Default is 'true': queries read only committed index state, which is faster
+	 * under write load.
+	 */
+	public static final String KEY_EVENTUALLY_CONSISTENT_SEARCH = "aras:neo4j:eventually-consistent-search";
+
+	/**
+	 * Profile property: comma separated URIs of the predicates whose values are indexed for
+	 * suggestions (type-ahead), e.g. labels and names.
+	 */
+	public static final String KEY_SUGGEST_PREDICATES = "aras:neo4j:suggest-predicates";
+
+	// ----------------------------------------------------
+
+	private boolean shareValueNodes;
+
+	private Map<String, String> indexConfig = new HashMap<String, String>();
+
+	private Map<String, String> kernelConfig = new HashMap<String, String>();
+
+	private boolean eventuallyConsistentSearch = true;
+
+	private Set<String> suggestPredicates = new HashSet<String>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Create the settings defined in given profile.
+	 * @param profile The profile.
+	 * @return The settings.
+	 */
+	public static StoreSettings fromProfile(ArastrejuProfile profile) {
+		final StoreSettings settings = new StoreSettings();
+		if (profile.isPropertyDefined(KEY_SHARE_VALUE_NODES)) {
+			settings.setShareValueNodes(Boolean.parseBoolean(profile.getProperty(KEY_SHARE_VALUE_NODES)));
+		}
+		if (profile.isPropertyDefined(KEY_INDEX_CONFIG)) {
+			settings.setIndexConfig(parseConfig(profile.getProperty(KEY_INDEX_CONFIG)));
+		}
+		if (profile.isPropertyDefined(KEY_KERNEL_CONFIG)) {
+			settings.setKernelConfig(parseConfig(profile.getProperty(KEY_KERNEL_CONFIG)));
+		}
+		if (profile.isPropertyDefined(KEY_EVENTUALLY_CONSISTENT_SEARCH)) {
+			settings.setEventuallyConsistentSearch(Boolean.parseBoolean(profile.getProperty(KEY_EVENTUALLY_CONSISTENT_SEARCH)));
+		}
+		if (profile.isPropertyDefined(KEY_SUGGEST_PREDICATES)) {
+			for (String predicate : profile.getProperty(KEY_SUGGEST_PREDICATES).split(",")) {
+				if (predicate.trim().length() > 0) {
+					settings.getSuggestPredicates().add(predicate.trim());
+				}
+			}
+		}
+		return settings;
+	}
+
+	/**
+	 * Parse a comma separated list of key=value pairs.
+	 * @param config The config string.
+	 * @return The config map.
+	 */
+	public static Map<String, String> parseConfig(String config) {
+		final Map<String, String> result = new HashMap<String, String>();
+		for (String entry : config.split(",")) {
+			final int sep = entry.indexOf('=');
+			if (sep > 0) {
+				result.put(entry.substring(0, sep).trim(), entry.substring(sep + 1).trim());
+			} else if (entry.trim().length() > 0) {
+				throw new IllegalArgumentException("Invalid config entry, expected key=value: " + entry);
+			}
+		}
+		return result;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @return true if equal literal values shall share one value node.
+	 */
+	public boolean isShareValueNodes() {
+		return shareValueNodes;
+	}
+
+	/**
+	 * @param shareValueNodes Flag if equal literal values shall share one value node.
+	 */
+	public void setShareValueNodes(boolean shareValueNodes) {
+		this.shareValueNodes = shareValueNodes;
+	}
+
+	/**
+	 * @return The configuration for newly created node indexes.
+	 */
+	public Map<String, String> getIndexConfig() {
+		return indexConfig;
+	}
+
+	/**
+	 * @param indexConfig The configuration for newly created node indexes.
+	 */
+	public void setIndexConfig(Map<String, String> indexConfig) {
+		this.indexConfig = indexConfig;
+	}
+
+	/**
+	 * @return The configuration passed to the Neo4j kernel.
+	 */
+	public Map<String, String> getKernelConfig() {
+		return kernelConfig;
+	}
+
+	/**
+	 * @param kernelConfig The configuration passed to the Neo4j kernel.
+	 */
+	public void setKernelConfig(Map<String, String> kernelConfig) {
+		this.kernelConfig = kernelConfig;
+	}
+
+	/**
+	 * @return true if queries shall read only committed index state.
+	 */
+	public boolean isEventuallyConsistentSearch() {
+		return eventuallyConsistentSearch;
+	}
+
+	/**
+	 * @param eventuallyConsistentSearch Flag if queries shall read only committed index state.
+	 */
+	public void setEventuallyConsistentSearch(boolean eventuallyConsistentSearch) {
+		this.eventuallyConsistentSearch = eventuallyConsistentSearch;
+	}
+
+	/**
+	 * @return The URIs of the predicates whose values are indexed for suggestions.
+	 */
+	public Set<String> getSuggestPredicates() {
+		return suggestPredicates;
+	}
+
+	/**
+	 * @param suggestPredicates The URIs of the predicates whose values are indexed for suggestions.
+	 */
+	public void setSuggestPredicates(Set<String> suggestPredicates) {
+		this.suggestPredicates = suggestPredicates;
+	}
+
+}
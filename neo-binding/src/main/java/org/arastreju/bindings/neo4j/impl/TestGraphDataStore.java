@@ -19,6 +19,7 @@ package org.arastreju.bindings.neo4j.impl;
 import java.io.File;
 import java.io.IOException;
 
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
 import org.arastreju.sge.ArastrejuProfile;
 import org.arastreju.sge.spi.ProfileCloseListener;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -47,6 +48,7 @@ public class TestGraphDataStore extends GraphDataStore {
         super();
         try{
         gdbService = new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder().newGraphDatabase();
+        new StatementContextIndex(gdbService.index()).initialize(gdbService);
         }catch(Exception any){
             throw new RuntimeException(any);
         }
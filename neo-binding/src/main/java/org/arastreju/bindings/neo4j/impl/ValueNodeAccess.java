@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.index.ValueIndex;
+import org.arastreju.sge.model.nodes.ValueNode;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ *  Creates the Neo nodes holding literal values. Depending on the store settings each literal
+ *  gets its own node or equal literals share one node.
+ * </p>
+ */
+public class ValueNodeAccess implements NeoConstants {
+
+	private final GraphDatabaseService gdbService;
+
+	private final ValueIndex valueIndex;
+
+	private final boolean shared;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param store The store.
+	 */
+	public ValueNodeAccess(GraphDataStore store) {
+		this.gdbService = store.getGdbService();
+		this.valueIndex = new ValueIndex(store.getIndexManager());
+		this.shared = store.getSettings().isShareValueNodes();
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Get the node for a value. If value nodes are shared an existing node will be reused.
+	 * Must be called inside a transaction.
+	 * @param value The value.
+	 * @return The value node.
+	 */
+	public Node getOrCreate(ValueNode value) {
+		return getOrCreate(value.getDataType().name(), value.getStringValue(), toString(value.getLocale()));
+	}
+
+	/**
+	 * Get the node for a value given by its stored representation.
+	 * Must be called inside a transaction.
+	 * @param datatype The name of the elementary data type.
+	 * @param stringValue The value.
+	 * @param locale The locale as stored in value nodes, may be null.
+	 * @return The value node.
+	 */
+	public Node getOrCreate(String datatype, String stringValue, String locale) {
+		if (shared) {
+			final Node existing = valueIndex.lookup(datatype, stringValue, locale);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		final Node created = gdbService.createNode();
+		created.setProperty(PROPERTY_DATATYPE, datatype);
+		created.setProperty(PROPERTY_VALUE, stringValue);
+		if (locale != null) {
+			created.setProperty(PROPERTY_LOCALE, locale);
+		}
+		if (shared) {
+			// another transaction may have created the same value since the lookup.
+			final Node registered = valueIndex.putIfAbsent(created);
+			if (registered != null && valueIndex.matches(registered, datatype, stringValue, locale)) {
+				created.delete();
+				return registered;
+			}
+			// on a hash collision the new node stays private to this statement.
+		}
+		return created;
+	}
+
+	/**
+	 * Delete a value node, which must not have any relationships left.
+	 * Must be called inside a transaction.
+	 * @param valueNode The value node.
+	 */
+	public void delete(Node valueNode) {
+		if (shared) {
+			valueIndex.remove(valueNode);
+		}
+		valueNode.delete();
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Convert a locale to the string stored in value nodes.
+	 * @param locale The locale or null.
+	 * @return The string or null.
+	 */
+	public static String toString(Locale locale) {
+		if (locale == null || locale.getLanguage() == null) {
+			return null;
+		}
+		final StringBuilder sb = new StringBuilder(5);
+		sb.append(locale.getLanguage());
+		if (locale.getCountry() != null) {
+			sb.append("_").append(locale.getCountry());
+		}
+		return sb.toString();
+	}
+
+}
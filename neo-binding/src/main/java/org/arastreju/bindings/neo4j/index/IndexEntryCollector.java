@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.NeoResourceResolver;
+import org.arastreju.bindings.neo4j.impl.NeoSoftInferencer;
+import org.arastreju.bindings.neo4j.impl.RelationshipConverter;
+import org.arastreju.sge.model.Statement;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.arastreju.bindings.neo4j.index.NeoIndex.normalize;
+import static org.arastreju.sge.SNOPS.uri;
+
+/**
+ * <p>
+ *  Derives the index entries of a resource node from the graph, the same way {@link NeoIndex}
+ *  creates them when statements are added: the node's URI in the resource index and the
+ *  statements in the index of each of their contexts, or in the 'local' index for statements
+ *  without context. The node's URI is added to each of these statement indexes.
+ * </p>
+ *
+ * <p>
+ *  Soft inferences are not part of the graph. They are only included if an inferencer is given,
+ *  which requires the inferred types to be resolvable.
+ * </p>
+ */
+public class IndexEntryCollector implements NeoConstants {
+
+	private static final List<String> LOCAL = Collections.singletonList(NeoIndex.INDEX_LOCAL);
+
+	// ----------------------------------------------------
+
+	private final IndexRegistry registry;
+
+	private final NeoSoftInferencer softInferencer;
+
+	private final RelationshipConverter converter = new RelationshipConverter();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param registry The registry defining the index layout.
+	 */
+	public IndexEntryCollector(IndexRegistry registry) {
+		this(registry, null);
+	}
+
+	/**
+	 * Constructor for a collector including soft inferences. The inferred types are resolved in a
+	 * conversation of its own, so each thread needs its own collector.
+	 * @param connection The connection.
+	 */
+	public IndexEntryCollector(GraphDataConnection connection) {
+		this(connection.getIndexRegistry(), new NeoSoftInferencer(
+				new NeoResourceResolver(connection, new NeoConversationContext(connection, true))));
+	}
+
+	/**
+	 * Constructor.
+	 * @param registry The registry defining the index layout.
+	 * @param softInferencer The inferencer for soft inferences, may be null.
+	 */
+	public IndexEntryCollector(IndexRegistry registry, NeoSoftInferencer softInferencer) {
+		this.registry = registry;
+		this.softInferencer = softInferencer;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Collect the index entries of a resource node.
+	 * @param node The node, must have a URI.
+	 * @return The entries.
+	 */
+	public NodeIndexEntries collect(Node node) {
+		final String uri = node.getProperty(PROPERTY_URI).toString();
+		final NodeIndexEntries entries = new NodeIndexEntries();
+		entries.add(NeoIndex.INDEX_RESOURCES, NeoIndex.INDEX_KEY_RESOURCE_URI, normalize(uri));
+		final Set<String> contextKeys = new LinkedHashSet<String>();
+		for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+			if (!converter.isStatement(rel)) {
+				continue;
+			}
+			final List<String> keys = getContextKeys(rel);
+			final Statement stmt = converter.toStatement(rel);
+			add(entries, keys, stmt);
+			if (softInferencer != null) {
+				final Set<Statement> inferred = new HashSet<Statement>();
+				softInferencer.addInferenced(stmt, inferred);
+				for (Statement inf : inferred) {
+					if (uri.equals(inf.getSubject().getQualifiedName().toURI())) {
+						add(entries, keys, inf);
+					}
+				}
+			}
+			contextKeys.addAll(keys);
+		}
+		if (contextKeys.isEmpty()) {
+			contextKeys.addAll(LOCAL);
+		}
+		for (String key : contextKeys) {
+			add(entries, key, NeoIndex.INDEX_KEY_RESOURCE_URI, uri);
+		}
+		return entries;
+	}
+
+	/**
+	 * Get the name of the index holding the statements of a context.
+	 * @param contextKey The context's URI or 'local'.
+	 * @return The index name.
+	 */
+	public String getIndexName(String contextKey) {
+		if (NeoIndex.INDEX_LOCAL.equals(contextKey)) {
+			return NeoIndex.INDEX_LOCAL;
+		} else {
+			return registry.getContextIndexName(contextKey);
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private void add(NodeIndexEntries entries, List<String> contextKeys, Statement stmt) {
+		final String predicate = uri(stmt.getPredicate());
+		for (String ctx : contextKeys) {
+			if (stmt.getObject().isValueNode()) {
+				final String value = stmt.getObject().asValue().getStringValue();
+				add(entries, ctx, predicate, value);
+				add(entries, ctx, NeoIndex.INDEX_KEY_RESOURCE_VALUE, value);
+				for (String token : TextTokenizer.tokenize(value)) {
+					add(entries, ctx, NeoIndex.INDEX_KEY_RESOURCE_TEXT, token);
+				}
+				if (registry.isSuggestPredicate(predicate)) {
+					for (String gram : TextTokenizer.edgeNGrams(value)) {
+						add(entries, ctx, NeoIndex.INDEX_KEY_RESOURCE_SUGGEST, gram);
+					}
+				}
+			} else {
+				final String object = uri(stmt.getObject().asResource());
+				add(entries, ctx, predicate, object);
+				add(entries, ctx, NeoIndex.INDEX_KEY_RESOURCE_RELATION, object);
+			}
+		}
+	}
+
+	private void add(NodeIndexEntries entries, String contextKey, String key, String value) {
+		entries.add(getIndexName(contextKey), key, normalize(value));
+	}
+
+	private List<String> getContextKeys(Relationship rel) {
+		if (!rel.hasProperty(CONTEXT_URI)) {
+			return LOCAL;
+		}
+		final List<String> keys = new ArrayList<String>();
+		Collections.addAll(keys, (String[]) rel.getProperty(CONTEXT_URI));
+		return keys.isEmpty() ? LOCAL : keys;
+	}
+
+}
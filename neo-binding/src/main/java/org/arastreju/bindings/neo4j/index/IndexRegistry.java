@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.apache.commons.codec.binary.Base64;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.arastreju.sge.context.Context;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ *  Registry of the node indexes of a connection. Index handles and the names of the context
+ *  specific indexes are created once and shared by all conversations of the connection.
+ * </p>
+ */
+public class IndexRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndexRegistry.class);
+
+	/**
+	 * Index prefix for context specific statements
+	 */
+	public static final String INDEX_CONTEXT_PREFIX = "context-";
+
+	// ----------------------------------------------------
+
+	private final IndexManager manager;
+
+	private final Map<String, String> config;
+
+	private final Set<String> suggestPredicates;
+
+	private final ConcurrentMap<String, Index<Node>> indexes = new ConcurrentHashMap<String, Index<Node>>();
+
+	private final ConcurrentMap<String, String> contextIndexNames = new ConcurrentHashMap<String, String>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 */
+	public IndexRegistry(IndexManager manager) {
+		this(manager, Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 * @param config The configuration for newly created indexes, may be empty.
+	 */
+	public IndexRegistry(IndexManager manager, Map<String, String> config) {
+		this(manager, config, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 * @param settings The store's settings.
+	 */
+	public IndexRegistry(IndexManager manager, StoreSettings settings) {
+		this(manager, settings.getIndexConfig(), settings.getSuggestPredicates());
+	}
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 * @param config The configuration for newly created indexes, may be empty.
+	 * @param suggestPredicates The URIs of the predicates whose values are indexed for suggestions.
+	 */
+	public IndexRegistry(IndexManager manager, Map<String, String> config, Set<String> suggestPredicates) {
+		this.manager = manager;
+		this.config = config;
+		this.suggestPredicates = suggestPredicates;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param name The index name.
+	 * @return The node index.
+	 */
+	public Index<Node> forNodes(String name) {
+		Index<Node> index = indexes.get(name);
+		if (index == null) {
+			if (config.isEmpty() || manager.existsForNodes(name)) {
+				index = manager.forNodes(name);
+			} else {
+				index = manager.forNodes(name, config);
+			}
+			indexes.put(name, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Get a node index only if it exists, e.g. for reading.
+	 * @param name The index name.
+	 * @return The node index or null, if there is no such index. It will not be created.
+	 */
+	public Index<Node> findForNodes(String name) {
+		final Index<Node> index = indexes.get(name);
+		if (index != null) {
+			return index;
+		}
+		return manager.existsForNodes(name) ? forNodes(name) : null;
+	}
+
+	/**
+	 * @param ctx The context.
+	 * @return The node index for statements in the context.
+	 */
+	public Index<Node> forContext(Context ctx) {
+		return forNodes(getContextIndexName(ctx.toURI()));
+	}
+
+	/**
+	 * @param contextUri The context's URI.
+	 * @return The name of the context's index.
+	 */
+	public String getContextIndexName(String contextUri) {
+		String name = contextIndexNames.get(contextUri);
+		if (name == null) {
+			name = INDEX_CONTEXT_PREFIX + encode(contextUri);
+			contextIndexNames.put(contextUri, name);
+		}
+		return name;
+	}
+
+	/**
+	 * @param predicate The predicate's URI.
+	 * @return true if values of this predicate are indexed for suggestions.
+	 */
+	public boolean isSuggestPredicate(String predicate) {
+		return suggestPredicates.contains(predicate);
+	}
+
+	/**
+	 * Check if a node index is derived from the graph, i.e. the resource index or a statement index.
+	 * @param name The index name.
+	 * @return true if the index can be rebuilt from the graph.
+	 */
+	public static boolean isGraphIndex(String name) {
+		return NeoIndex.INDEX_RESOURCES.equals(name)
+				|| NeoIndex.INDEX_LOCAL.equals(name)
+				|| name.startsWith(INDEX_CONTEXT_PREFIX);
+	}
+
+	/**
+	 * @return The index manager.
+	 */
+	public IndexManager getIndexManager() {
+		return manager;
+	}
+
+	/**
+	 * Forget all index handles, e.g. after indexes have been deleted.
+	 */
+	public void clear() {
+		indexes.clear();
+	}
+
+	// ----------------------------------------------------
+
+	private String encode(String uri) {
+		try {
+			return new String(Base64.encodeBase64(uri.getBytes("UTF-8")), "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			LOGGER.error("Could not encode string: " + uri + " to Base64.");
+			throw new RuntimeException(e);
+		}
+	}
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *  Queue of invalid index hits found by searches, i.e. nodes which have been deleted or are not
+ *  resource nodes. The nodes are removed from all indexes derived from the graph by a single
+ *  background thread, in batches of one transaction each, so searches stay read only. The queue is
+ *  bounded, further invalid hits are dropped while it is full and will be queued again when found
+ *  by the next search. After {@link #close()} further nodes are ignored.
+ * </p>
+ */
+public class IndexRepairQueue implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndexRepairQueue.class);
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	public static final int BATCH_SIZE = 500;
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	private final IndexRegistry registry;
+
+	private final BlockingQueue<Node> queue;
+
+	private final Set<Long> queued = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private ExecutorService worker;
+
+	private volatile boolean closed;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param gdbService The graph database.
+	 * @param registry The registry of the indexes to be repaired.
+	 */
+	public IndexRepairQueue(GraphDatabaseService gdbService, IndexRegistry registry) {
+		this(gdbService, registry, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param gdbService The graph database.
+	 * @param registry The registry of the indexes to be repaired.
+	 * @param capacity The maximum number of queued nodes.
+	 */
+	public IndexRepairQueue(GraphDatabaseService gdbService, IndexRegistry registry, int capacity) {
+		this.gdbService = gdbService;
+		this.registry = registry;
+		this.queue = new ArrayBlockingQueue<Node>(capacity);
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Queue an invalid node for removal from the indexes. Does not block. Ignored if the queue
+	 * has been closed.
+	 * @param node The node.
+	 */
+	public void enqueue(Node node) {
+		if (closed || !queued.add(node.getId())) {
+			return;
+		}
+		if (!queue.offer(node)) {
+			queued.remove(node.getId());
+			LOGGER.warn("Index repair queue is full, invalid node not queued: {}", node.getId());
+			return;
+		}
+		schedule();
+	}
+
+	/**
+	 * @return The number of nodes waiting for repair.
+	 */
+	public int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Stop the background thread. Batches already started are finished, queued nodes are discarded.
+	 */
+	public synchronized void close() {
+		closed = true;
+		if (worker != null) {
+			worker.shutdown();
+			worker = null;
+		}
+		queue.clear();
+		queued.clear();
+	}
+
+	// ----------------------------------------------------
+
+	private synchronized void schedule() {
+		if (closed) {
+			queue.clear();
+			queued.clear();
+			return;
+		}
+		if (!scheduled.compareAndSet(false, true)) {
+			return;
+		}
+		if (worker == null) {
+			worker = Executors.newSingleThreadExecutor(new RepairThreadFactory());
+		}
+		worker.execute(new Runnable() {
+			public void run() {
+				drain();
+			}
+		});
+	}
+
+	private void drain() {
+		try {
+			final List<Node> batch = new ArrayList<Node>(BATCH_SIZE);
+			while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+				try {
+					repair(batch);
+				} catch (RuntimeException e) {
+					LOGGER.error("Could not repair index entries of " + batch.size() + " nodes.", e);
+				}
+				for (Node node : batch) {
+					queued.remove(node.getId());
+				}
+				batch.clear();
+			}
+		} finally {
+			scheduled.set(false);
+		}
+		if (!queue.isEmpty()) {
+			schedule();
+		}
+	}
+
+	private void repair(List<Node> nodes) {
+		final List<String> names = new ArrayList<String>();
+		for (String name : registry.getIndexManager().nodeIndexNames()) {
+			if (IndexRegistry.isGraphIndex(name)) {
+				names.add(name);
+			}
+		}
+		int removed = 0;
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (Node node : nodes) {
+				if (isInvalid(node)) {
+					for (String name : names) {
+						registry.forNodes(name).remove(node);
+					}
+					removed++;
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		LOGGER.info("Removed {} invalid nodes from {} indexes.", removed, names.size());
+	}
+
+	private boolean isInvalid(Node node) {
+		try {
+			return !node.hasProperty(PROPERTY_URI);
+		} catch (NotFoundException e) {
+			return true;
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private static class RepairThreadFactory implements ThreadFactory {
+
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, "aras-neo4j-index-repair");
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
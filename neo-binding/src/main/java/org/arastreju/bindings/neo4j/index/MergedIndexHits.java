@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.util.LongIdSet;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.index.IndexHits;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *  Index hits of several indexes merged into one result. Without sorting, hits are consumed lazily
+ *  index by index. Nodes found in more than one index are returned only once. Scores are those of
+ *  the index a hit was found in.
+ * </p>
+ *
+ * <p>
+ *  If the query is sorted, the hits of each index are already in order and are merged k-way, so
+ *  the result is sorted globally. The sort value of a head is read from the graph the way it has
+ *  been indexed in the head's index: the normalized values of the node's statements, whose
+ *  predicate is the sort field and which belong to the index's context, or the node's URI for
+ *  {@link NeoIndex#INDEX_KEY_RESOURCE_URI}. Nodes without such value come first, like in a Lucene
+ *  string sort. Lucene does not define the order of a field with several values in one document,
+ *  such fields are merged by their smallest value.
+ * </p>
+ *
+ * <p>
+ *  Sorting by a derived key, like {@link NeoIndex#INDEX_KEY_RESOURCE_VALUE}, is not supported,
+ *  as its values can not be told from the graph. Relevance and document order are not comparable
+ *  between indexes: hits being equal in all fields before are taken index by index.
+ * </p>
+ *
+ * <p>
+ *  Hits merged by relevance, like the suggestions, are merged k-way by descending score, as each
+ *  index returns its hits in this order. A node found in several indexes is returned with its
+ *  highest score. The limit is applied to the merged result, so the best hits of all indexes are
+ *  returned, not the first hits of each.
+ * </p>
+ *
+ * <p>
+ *  The size is known only after all hits have been read, so calling {@link #size()} reads and
+ *  buffers the remaining hits.
+ * </p>
+ */
+public class MergedIndexHits implements IndexHits<Node> {
+
+	private final List<IndexHits<Node>> sources;
+
+	private final Iterator<IndexHits<Node>> sourceIterator;
+
+	private final LongIdSet seen = new LongIdSet();
+
+	private final LinkedList<Hit> pending = new LinkedList<Hit>();
+
+	private final HitOrder order;
+
+	private final boolean byScore;
+
+	private final int max;
+
+	private final Hit[] heads;
+
+	private IndexHits<Node> current;
+
+	private int returned;
+
+	private float currentScore;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param sources The hits to be merged.
+	 */
+	public MergedIndexHits(List<IndexHits<Node>> sources) {
+		this(sources, null, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param sources The hits to be merged, each sorted by the given sort.
+	 * @param sort The sort of the query, null if not sorted.
+	 * @param contextKeys The context of each source: the context's URI or 'local'.
+	 * @throws IllegalArgumentException if the sort is not supported, the sources are closed then.
+	 */
+	public MergedIndexHits(List<IndexHits<Node>> sources, Sort sort, List<String> contextKeys) {
+		this.sources = sources;
+		this.sourceIterator = sources.iterator();
+		this.heads = new Hit[sources.size()];
+		this.byScore = false;
+		this.max = Integer.MAX_VALUE;
+		try {
+			this.order = sort != null ? new HitOrder(sort, contextKeys) : null;
+		} catch (IllegalArgumentException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Constructor for hits merged by relevance.
+	 * @param sources The hits to be merged, each in order of descending score.
+	 * @param max The maximum number of merged hits.
+	 */
+	public MergedIndexHits(List<IndexHits<Node>> sources, int max) {
+		this.sources = sources;
+		this.sourceIterator = sources.iterator();
+		this.heads = new Hit[sources.size()];
+		this.order = null;
+		this.byScore = true;
+		this.max = max;
+	}
+
+	// ----------------------------------------------------
+
+	public boolean hasNext() {
+		return !pending.isEmpty() || fetch();
+	}
+
+	public Node next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final Hit hit = pending.removeFirst();
+		currentScore = hit.score;
+		returned++;
+		return hit.node;
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	public Iterator<Node> iterator() {
+		return this;
+	}
+
+	public int size() {
+		while (fetch()) {
+			// buffer all remaining hits.
+		}
+		return returned + pending.size();
+	}
+
+	public void close() {
+		for (IndexHits<Node> hits : sources) {
+			hits.close();
+		}
+		pending.clear();
+		Arrays.fill(heads, null);
+		current = null;
+	}
+
+	public Node getSingle() {
+		try {
+			if (!hasNext()) {
+				return null;
+			}
+			final Node single = next();
+			if (hasNext()) {
+				throw new NoSuchElementException("More than one hit found.");
+			}
+			return single;
+		} finally {
+			close();
+		}
+	}
+
+	public float currentScore() {
+		return currentScore;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Read the next node not seen yet into the pending hits.
+	 * @return false if all sources are exhausted.
+	 */
+	private boolean fetch() {
+		if (returned + pending.size() >= max) {
+			return false;
+		}
+		if (order != null || byScore) {
+			return fetchSorted();
+		}
+		while (true) {
+			if (current == null || !current.hasNext()) {
+				if (!sourceIterator.hasNext()) {
+					return false;
+				}
+				current = sourceIterator.next();
+				continue;
+			}
+			final Node node = current.next();
+			if (seen.add(node.getId())) {
+				pending.add(new Hit(node, current.currentScore()));
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Read the smallest head of all sources not seen yet into the pending hits.
+	 * @return false if all sources are exhausted.
+	 */
+	private boolean fetchSorted() {
+		while (true) {
+			int min = -1;
+			for (int i = 0; i < heads.length; i++) {
+				final IndexHits<Node> source = sources.get(i);
+				if (heads[i] == null && source.hasNext()) {
+					final Node node = source.next();
+					heads[i] = new Hit(node, source.currentScore(), i, order != null ? order.keyOf(node, i) : null);
+				}
+				if (heads[i] != null && (min < 0 || compare(heads[i], heads[min]) < 0)) {
+					min = i;
+				}
+			}
+			if (min < 0) {
+				return false;
+			}
+			final Hit hit = heads[min];
+			heads[min] = null;
+			if (seen.add(hit.node.getId())) {
+				pending.add(hit);
+				return true;
+			}
+		}
+	}
+
+	private int compare(Hit a, Hit b) {
+		if (order != null) {
+			return order.compare(a, b);
+		}
+		final int result = Float.compare(b.score, a.score);
+		return result != 0 ? result : a.source - b.source;
+	}
+
+	// ----------------------------------------------------
+
+	private static class Hit {
+
+		private final Node node;
+
+		private final float score;
+
+		private final int source;
+
+		private final String[] key;
+
+		Hit(Node node, float score) {
+			this(node, score, -1, null);
+		}
+
+		Hit(Node node, float score, int source, String[] key) {
+			this.node = node;
+			this.score = score;
+			this.source = source;
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Order of hits by the fields of a Lucene sort. Field values are taken from the graph.
+	 */
+	private static class HitOrder implements NeoConstants {
+
+		private final SortField[] fields;
+
+		private final List<String> contextKeys;
+
+		HitOrder(Sort sort, List<String> contextKeys) {
+			this.fields = sort.getSort();
+			this.contextKeys = contextKeys;
+			for (SortField field : fields) {
+				if (isDerived(field.getField())) {
+					throw new IllegalArgumentException("Can not merge hits of several indexes sorted by " + field.getField());
+				}
+			}
+		}
+
+		String[] keyOf(Node node, int source) {
+			final String[] key = new String[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				if (!isIndexOrder(fields[i])) {
+					key[i] = sortValue(node, fields[i].getField(), contextKeys.get(source));
+				}
+			}
+			return key;
+		}
+
+		int compare(Hit a, Hit b) {
+			for (int i = 0; i < fields.length; i++) {
+				if (isIndexOrder(fields[i])) {
+					// not comparable between indexes, keep the order of the sources.
+					break;
+				}
+				int result = compare(fields[i].getType(), a.key[i], b.key[i]);
+				if (fields[i].getReverse()) {
+					result = -result;
+				}
+				if (result != 0) {
+					return result;
+				}
+			}
+			return a.source - b.source;
+		}
+
+		private boolean isIndexOrder(SortField field) {
+			return field.getType() == SortField.SCORE || field.getType() == SortField.DOC;
+		}
+
+		private boolean isDerived(String field) {
+			return NeoIndex.INDEX_KEY_RESOURCE_VALUE.equals(field)
+					|| NeoIndex.INDEX_KEY_RESOURCE_RELATION.equals(field)
+					|| NeoIndex.INDEX_KEY_RESOURCE_TEXT.equals(field)
+					|| NeoIndex.INDEX_KEY_RESOURCE_SUGGEST.equals(field);
+		}
+
+		private int compare(int type, String a, String b) {
+			if (a == null) {
+				return b == null ? 0 : -1;
+			} else if (b == null) {
+				return 1;
+			}
+			switch (type) {
+			case SortField.INT:
+			case SortField.LONG:
+			case SortField.SHORT:
+			case SortField.BYTE:
+			case SortField.FLOAT:
+			case SortField.DOUBLE:
+				try {
+					return Double.compare(Double.parseDouble(a), Double.parseDouble(b));
+				} catch (NumberFormatException e) {
+					return a.compareTo(b);
+				}
+			default:
+				return a.compareTo(b);
+			}
+		}
+
+		/**
+		 * The smallest value of the field, as indexed for the node in the given context.
+		 */
+		private String sortValue(Node node, String field, String contextKey) {
+			try {
+				if (NeoIndex.INDEX_KEY_RESOURCE_URI.equals(field)) {
+					final Object uri = node.getProperty(PROPERTY_URI, null);
+					return uri != null ? NeoIndex.normalize(uri.toString()) : null;
+				}
+				String min = null;
+				for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+					if (!field.equals(rel.getProperty(PREDICATE_URI, null)) || !isInContext(rel, contextKey)) {
+						continue;
+					}
+					final Object value = rel.isType(ArasRelTypes.REFERENCE)
+							? rel.getEndNode().getProperty(PROPERTY_URI, null)
+							: rel.getEndNode().getProperty(PROPERTY_VALUE, null);
+					if (value != null) {
+						final String normalized = NeoIndex.normalize(value.toString());
+						if (min == null || normalized.compareTo(min) < 0) {
+							min = normalized;
+						}
+					}
+				}
+				return min;
+			} catch (NotFoundException e) {
+				// invalid hit, the node has been deleted.
+				return null;
+			}
+		}
+
+		/**
+		 * Check if a statement is indexed in the index of the context, like {@link IndexEntryCollector} does.
+		 */
+		private boolean isInContext(Relationship rel, String contextKey) {
+			final String[] contexts = (String[]) rel.getProperty(CONTEXT_URI, null);
+			if (contexts == null || contexts.length == 0) {
+				return NeoIndex.INDEX_LOCAL.equals(contextKey);
+			}
+			for (String ctx : contexts) {
+				if (ctx.equals(contextKey)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -16,7 +16,11 @@
  */
 package org.arastreju.bindings.neo4j.index;
 
-import org.apache.commons.codec.binary.Base64;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
 import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.sge.ConversationContext;
 import org.arastreju.sge.context.Context;
@@ -24,10 +28,8 @@ import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.nodes.ResourceNode;
 import org.arastreju.sge.model.nodes.ValueNode;
 import org.arastreju.sge.naming.QualifiedName;
-import org.arastreju.sge.persistence.TxAction;
-import org.arastreju.sge.persistence.TxProvider;
-import org.arastreju.sge.persistence.TxResultAction;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.index.Index;
 import org.neo4j.graphdb.index.IndexHits;
@@ -36,9 +38,11 @@ import org.neo4j.index.lucene.QueryContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.arastreju.sge.SNOPS.uri;
 
@@ -48,6 +52,18 @@ import static org.arastreju.sge.SNOPS.uri;
  * </p>
  *
  * <p>
+ *  Statements are indexed in the index of the conversation's primary context. Lookups and searches
+ *  run against this index and the indexes of all read contexts, as far as these exist, the hits are
+ *  merged and deduplicated by {@link MergedIndexHits}. Sorted queries are merged in sort order, see
+ *  there for the sort fields supported.
+ * </p>
+ *
+ * <p>
+ *  Lookups and searches are read only and do not open transactions. Invalid hits are skipped and
+ *  removed from the indexes in the background by the connection's {@link IndexRepairQueue}.
+ * </p>
+ *
+ * <p>
  * 	Created Apr 29, 2011
  * </p>
  *
@@ -74,33 +90,40 @@ public class NeoIndex implements NeoConstants {
      */
     public static final String INDEX_KEY_RESOURCE_RELATION = "resource-relation";
 
+    /**
+     * Index key for the single tokens of a resource's values, for full text and prefix search.
+     */
+    public static final String INDEX_KEY_RESOURCE_TEXT = "resource-text";
+
+    /**
+     * Index key for the edge n-grams of values of suggest predicates.
+     */
+    public static final String INDEX_KEY_RESOURCE_SUGGEST = "resource-suggest";
+
     // ----------------------------------------------------
 
     /**
 	 * Index for all resources by their qualified name.
 	 */
-	private static final String INDEX_RESOURCES = "resources";
+	public static final String INDEX_RESOURCES = "resources";
 
     /**
      * Index for statements in this domain: "local public"
      */
-    private static final String INDEX_LOCAL = "local";
+    public static final String INDEX_LOCAL = "local";
 
     /**
      * Mirror index for public statements: "global public"
      */
     private static final String INDEX_PUBLIC = "public";
-
-    /**
-     * Index prefix for context specific statements
-     */
-    private static final String INDEX_CONTEXT_PREFIX = "context-";
 	
 	// -----------------------------------------------------
 
     private final ConversationContext conversationContext;
 	
-	private final IndexManager manager;
+	private final IndexRegistry registry;
+
+	private final IndexRepairQueue repairQueue;
 
     // -----------------------------------------------------
 	
@@ -109,8 +132,28 @@ public class NeoIndex implements NeoConstants {
      * @param ctx The current conversation context.
      */
     public NeoIndex(ConversationContext ctx, IndexManager idxManager) {
+        this(ctx, new IndexRegistry(idxManager));
+    }
+
+    /**
+     * Constructor.
+     * @param ctx The current conversation context.
+     * @param registry The registry of the connection's indexes.
+     */
+    public NeoIndex(ConversationContext ctx, IndexRegistry registry) {
+        this(ctx, registry, null);
+    }
+
+    /**
+     * Constructor.
+     * @param ctx The current conversation context.
+     * @param registry The registry of the connection's indexes.
+     * @param repairQueue The queue for invalid hits found by searches, may be null.
+     */
+    public NeoIndex(ConversationContext ctx, IndexRegistry registry, IndexRepairQueue repairQueue) {
         this.conversationContext = ctx;
-        this.manager = idxManager;
+        this.registry = registry;
+        this.repairQueue = repairQueue;
     }
 	
 	// -- LOOKUP ------------------------------------------
@@ -126,24 +169,15 @@ public class NeoIndex implements NeoConstants {
 	 * Find in Index by key and value.
 	 */
 	public IndexHits<Node> lookup(final String key, final String value) {
-		return tx().doTransacted(new TxResultAction<IndexHits<Node>>() {
-            @Override
-            public IndexHits<Node> execute() {
-                return contextIndex().get(key, normalize(value));
-            }
-        });
+		return get(key, normalize(value));
 	}
 
     /**
-     * Find in Index by key and value.
+     * Find all resource nodes. Matches all documents of the resource index instead of expanding
+     * a wildcard over all terms, so hits are read lazily.
      */
     public IndexHits<Node>  allNodes() {
-        return tx().doTransacted(new TxResultAction<IndexHits<Node>>() {
-            @Override
-            public IndexHits<Node> execute() {
-                return resourceIndex().query(INDEX_KEY_RESOURCE_URI, "*");
-            }
-        });
+        return resourceIndex().query(new MatchAllDocsQuery());
     }
 
 	// -- SEARCH ------------------------------------------
@@ -154,12 +188,7 @@ public class NeoIndex implements NeoConstants {
 	 * @return The resulting index hits.
 	 */
 	public IndexHits<Node> search(final String query) {
-		return tx().doTransacted(new TxResultAction<IndexHits<Node>>() {
-            @Override
-            public IndexHits<Node> execute() {
-                return contextIndex().query(query);
-            }
-        });
+		return query(query);
 	}
 
 	/**
@@ -168,43 +197,87 @@ public class NeoIndex implements NeoConstants {
 	 * @return The resulting index hits.
 	 */
 	public IndexHits<Node> search(final QueryContext query) {
-		return tx().doTransacted(new TxResultAction<IndexHits<Node>>() {
-            @Override
-            public IndexHits<Node> execute() {
-                return contextIndex().query(query);
-            }
-        });
+		return query(query);
 	}
 
 	/**
-	 * Find in Index by key and value.
+	 * Find resources having a value of a suggest predicate starting with the words of given prefix.
+	 * Only exact terms of the n-gram index are looked up, no term enumeration. The best hits of
+	 * each read index are merged by score, the limit applies to the merged hits.
+	 * @param prefix The prefix.
+	 * @param max The maximum number of hits.
+	 * @return The resulting index hits, in order of descending score.
+	 */
+	public IndexHits<Node> suggest(final String prefix, final int max) {
+		final BooleanQuery query = new BooleanQuery();
+		for (String token : TextTokenizer.tokenize(prefix)) {
+			final String gram = token.length() > TextTokenizer.MAX_GRAM_LENGTH
+					? token.substring(0, TextTokenizer.MAX_GRAM_LENGTH) : token;
+			query.add(new TermQuery(new Term(INDEX_KEY_RESOURCE_SUGGEST, gram)), BooleanClause.Occur.MUST);
+		}
+		final List<IndexHits<Node>> hits = new ArrayList<IndexHits<Node>>();
+		for (Index<Node> index : readIndexes().values()) {
+			hits.add(index.query(new QueryContext(query).tradeCorrectnessForSpeed().top(max)));
+		}
+		return new MergedIndexHits(hits, max);
+	}
+
+	/**
+	 * Find in Index by key and value. Invalid hits are skipped and queued for repair.
 	 */
 	public List<Node> search(final String key, final String value) {
 		final List<Node> result = new ArrayList<Node>();
-		tx().doTransacted(new TxAction() {
-            @Override
-            public void execute() {
-                toList(result, contextIndex().query(key, normalize(value)));
-            }
-        });
+		toList(result, query(key, normalize(value)));
 		return result;
 	}
 	
 	// -- ADD TO INDEX ------------------------------------
 	
 	public void index(Node subject, ResourceID predicate, ValueNode value) {
-		indexResource(subject, uri(predicate), value.getStringValue());
-		indexResource(subject, INDEX_KEY_RESOURCE_VALUE, value.asValue().getStringValue());
+		indexValue(subject, uri(predicate), value.getStringValue());
 	}
 	
 	public void index(Node subject, ResourceID predicate, ResourceNode relation) {
-		indexResource(subject, uri(predicate), uri(relation));
-		indexResource(subject, INDEX_KEY_RESOURCE_RELATION, relation.toURI());
+		indexReference(subject, uri(predicate), relation.toURI());
+	}
+
+	public void indexValue(Node subject, String predicate, String value) {
+		indexValue(subject, predicate, value, null);
+	}
+
+	/**
+	 * Index a value statement in the index of the given context.
+	 * @param contextUri The context's URI, null for the index of the primary context.
+	 */
+	public void indexValue(Node subject, String predicate, String value, String contextUri) {
+		indexResource(subject, predicate, value, contextUri);
+		indexResource(subject, INDEX_KEY_RESOURCE_VALUE, value, contextUri);
+		for (String token : TextTokenizer.tokenize(value)) {
+			indexResource(subject, INDEX_KEY_RESOURCE_TEXT, token, contextUri);
+		}
+		if (registry.isSuggestPredicate(predicate)) {
+			for (String gram : TextTokenizer.edgeNGrams(value)) {
+				indexResource(subject, INDEX_KEY_RESOURCE_SUGGEST, gram, contextUri);
+			}
+		}
+	}
+
+	public void indexReference(Node subject, String predicate, String object) {
+		indexReference(subject, predicate, object, null);
+	}
+
+	/**
+	 * Index a reference statement in the index of the given context.
+	 * @param contextUri The context's URI, null for the index of the primary context.
+	 */
+	public void indexReference(Node subject, String predicate, String object, String contextUri) {
+		indexResource(subject, predicate, object, contextUri);
+		indexResource(subject, INDEX_KEY_RESOURCE_RELATION, object, contextUri);
 	}
 	
 	public void index(Node subject, QualifiedName qn) {
         resourceIndex().add(subject, INDEX_KEY_RESOURCE_URI, normalize(qn.toURI()));
-		indexResource(subject, INDEX_KEY_RESOURCE_URI, qn.toURI());
+		indexResource(subject, INDEX_KEY_RESOURCE_URI, qn.toURI(), null);
 	}
 	
 	// --REMOVE FROM INDEX --------------------------------
@@ -213,6 +286,20 @@ public class NeoIndex implements NeoConstants {
 	    contextIndex().remove(node);
 	}
 
+	/**
+	 * Remove a node, which is about to be deleted, from the resource index and from all statement
+	 * indexes it may be contained in: the index of the primary context and the existing indexes
+	 * of the given contexts.
+	 * @param node The node.
+	 * @param contextUris The URIs of the contexts of the node's statements.
+	 */
+	public void removeCompletely(final Node node, final Collection<String> contextUris) {
+		resourceIndex().remove(node);
+		for (Index<Node> index : statementIndexes(contextUris)) {
+			index.remove(node);
+		}
+	}
+
 	/**
 	 * Remove relationship from index.
 	 * @param rel The relationship to be removed.
@@ -230,29 +317,51 @@ public class NeoIndex implements NeoConstants {
 	public void remove(Node subject, String key, String value) {
 	    contextIndex().remove(subject, key, normalize(value));
 	}
+
+	/**
+	 * Remove relationship from the index of the primary context and the existing indexes of the given contexts.
+	 */
+	public void remove(Node subject, String key, String value, Collection<String> contextUris) {
+		for (Index<Node> index : statementIndexes(contextUris)) {
+			index.remove(subject, key, normalize(value));
+		}
+	}
 	
 	// -----------------------------------------------------
 	
-	private void indexResource(Node subject, String key, String value) {
-	    contextIndex().add(subject, key, normalize(value));
+	private void indexResource(Node subject, String key, String value, String contextUri) {
+	    final Index<Node> index;
+	    if (contextUri == null) {
+	        index = contextIndex();
+	    } else {
+	        index = registry.forNodes(registry.getContextIndexName(contextUri));
+	    }
+	    index.add(subject, key, normalize(value));
 	}
 	
 	private void toList(List<Node> result, IndexHits<Node> nodes) {
-		for (Node node : nodes) {
-			if (node.hasProperty(PROPERTY_URI)) {
-				result.add(node);
-			} else {
-				LOGGER.error("Invalid node in index, will be removed: " + node);
-				remove(node);
-				for(Relationship rel : node.getRelationships()) {
-					remove(rel);
+		try {
+			for (Node node : nodes) {
+				if (isValid(node)) {
+					result.add(node);
+				} else if (repairQueue != null) {
+					LOGGER.warn("Invalid node in index, queued for removal: " + node.getId());
+					repairQueue.enqueue(node);
+				} else {
+					LOGGER.warn("Invalid node in index: " + node.getId());
 				}
 			}
+		} finally {
+			nodes.close();
 		}
 	}
 
-	private TxProvider tx() {
-		return conversationContext.getTxProvider();
+	private boolean isValid(Node node) {
+		try {
+			return node.hasProperty(PROPERTY_URI);
+		} catch (NotFoundException e) {
+			return false;
+		}
 	}
 
     // ----------------------------------------------------
@@ -260,33 +369,127 @@ public class NeoIndex implements NeoConstants {
 	private Index<Node> contextIndex() {
 	    final Context context = conversationContext.getPrimaryContext();
 	    if (context != null) {
-            return manager.forNodes(indexForContext(context));
+            return registry.forContext(context);
 	    } else {
-            return manager.forNodes(INDEX_LOCAL);
+            return registry.forNodes(INDEX_LOCAL);
 	    }
     }
 
+    /**
+     * The index of the primary context and the existing indexes of the given contexts.
+     */
+    private List<Index<Node>> statementIndexes(Collection<String> contextUris) {
+        final List<Index<Node>> indexes = new ArrayList<Index<Node>>();
+        indexes.add(contextIndex());
+        for (String uri : contextUris) {
+            final String name = registry.getContextIndexName(uri);
+            if (registry.getIndexManager().existsForNodes(name)) {
+                final Index<Node> index = registry.forNodes(name);
+                if (!indexes.contains(index)) {
+                    indexes.add(index);
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * The indexes to be searched: the index of the primary context and those of all read contexts,
+     * by the context's URI or 'local'. Indexes not existing yet are skipped instead of being created
+     * by a read.
+     */
+    private Map<String, Index<Node>> readIndexes() {
+        final Map<String, Index<Node>> indexes = new LinkedHashMap<String, Index<Node>>();
+        final Context primary = conversationContext.getPrimaryContext();
+        if (primary != null) {
+            addIfExists(indexes, primary.toURI(), registry.getContextIndexName(primary.toURI()));
+        } else {
+            addIfExists(indexes, INDEX_LOCAL, INDEX_LOCAL);
+        }
+        final Context[] readContexts = conversationContext.getReadContexts();
+        if (readContexts != null) {
+            for (Context ctx : readContexts) {
+                addIfExists(indexes, ctx.toURI(), registry.getContextIndexName(ctx.toURI()));
+            }
+        }
+        return indexes;
+    }
+
+    private void addIfExists(Map<String, Index<Node>> indexes, String contextKey, String name) {
+        if (indexes.containsKey(contextKey)) {
+            return;
+        }
+        final Index<Node> index = registry.findForNodes(name);
+        if (index != null) {
+            indexes.put(contextKey, index);
+        }
+    }
+
+    private IndexHits<Node> merge(List<IndexHits<Node>> hits) {
+        return hits.size() == 1 ? hits.get(0) : new MergedIndexHits(hits);
+    }
+
+    /**
+     * Exact lookup in all read indexes.
+     */
+    private IndexHits<Node> get(String key, String value) {
+        final List<IndexHits<Node>> hits = new ArrayList<IndexHits<Node>>();
+        for (Index<Node> index : readIndexes().values()) {
+            hits.add(index.get(key, value));
+        }
+        return merge(hits);
+    }
+
+    /**
+     * Query for a key in all read indexes.
+     */
+    private IndexHits<Node> query(String key, String valueQuery) {
+        final List<IndexHits<Node>> hits = new ArrayList<IndexHits<Node>>();
+        for (Index<Node> index : readIndexes().values()) {
+            hits.add(index.query(key, valueQuery));
+        }
+        return merge(hits);
+    }
+
+    /**
+     * Execute a query string in all read indexes.
+     */
+    private IndexHits<Node> query(String query) {
+        final List<IndexHits<Node>> hits = new ArrayList<IndexHits<Node>>();
+        for (Index<Node> index : readIndexes().values()) {
+            hits.add(index.query(query));
+        }
+        return merge(hits);
+    }
+
+    /**
+     * Execute a query in all read indexes.
+     */
+    private IndexHits<Node> query(QueryContext query) {
+        final Map<String, Index<Node>> indexes = readIndexes();
+        final List<IndexHits<Node>> hits = new ArrayList<IndexHits<Node>>();
+        for (Index<Node> index : indexes.values()) {
+            hits.add(index.query(query));
+        }
+        if (hits.size() == 1 || query.getSorting() == null) {
+            return merge(hits);
+        }
+        return new MergedIndexHits(hits, query.getSorting(), new ArrayList<String>(indexes.keySet()));
+    }
+
     private Index<Node> resourceIndex() {
-        return manager.forNodes(INDEX_RESOURCES);
+        return registry.forNodes(INDEX_RESOURCES);
     }
 
 	// ----------------------------------------------------
 	
-	private String normalize(final String s) {
+	/**
+	 * Normalize a value for indexing.
+	 * @param s The value.
+	 * @return The normalized value.
+	 */
+	public static String normalize(final String s) {
 		return s.trim().toLowerCase();
 	}
 
-    private String indexForContext(Context ctx) {
-        String value = null;
-        try {
-            byte[] bytes =  Base64.encodeBase64(ctx.toURI().getBytes("UTF-8"));
-            value = new String(bytes, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            LOGGER.error("Could not encode string: " + value + " to Base64.");
-            throw new RuntimeException(e);
-        }
-        return INDEX_CONTEXT_PREFIX + value;
-    }
-
-
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.index.Index;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *  The index entries of one node, i.e. the key/value pairs per index name, as they are derived
+ *  from the graph by the {@link IndexEntryCollector}. Values are already normalized.
+ * </p>
+ */
+public class NodeIndexEntries {
+
+	private final Map<String, Set<Entry>> entries = new LinkedHashMap<String, Set<Entry>>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Add an entry.
+	 * @param index The index name.
+	 * @param key The key.
+	 * @param value The normalized value.
+	 */
+	public void add(String index, String key, String value) {
+		Set<Entry> set = entries.get(index);
+		if (set == null) {
+			set = new LinkedHashSet<Entry>();
+			entries.put(index, set);
+		}
+		set.add(new Entry(key, value));
+	}
+
+	/**
+	 * @return The names of all indexes the node has entries in.
+	 */
+	public Set<String> getIndexNames() {
+		return entries.keySet();
+	}
+
+	/**
+	 * @param index The index name.
+	 * @return The entries of the node in this index, never null.
+	 */
+	public Set<Entry> get(String index) {
+		final Set<Entry> set = entries.get(index);
+		if (set == null) {
+			return Collections.emptySet();
+		}
+		return set;
+	}
+
+	/**
+	 * @param index The index name.
+	 * @param key The key.
+	 * @param value The normalized value.
+	 * @return true if the node has this entry.
+	 */
+	public boolean contains(String index, String key, String value) {
+		return get(index).contains(new Entry(key, value));
+	}
+
+	/**
+	 * Write the entries to the indexes.
+	 * @param registry The registry of the indexes.
+	 * @param node The node.
+	 * @param replace Flag if existing entries of the node shall be removed first.
+	 */
+	public void write(IndexRegistry registry, Node node, boolean replace) {
+		for (String name : entries.keySet()) {
+			final Index<Node> index = registry.forNodes(name);
+			if (replace) {
+				index.remove(node);
+			}
+			for (Entry entry : entries.get(name)) {
+				index.add(node, entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * A key/value pair in an index.
+	 */
+	public static final class Entry {
+
+		private final String key;
+
+		private final String value;
+
+		public Entry(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			final Entry other = (Entry) obj;
+			return key.equals(other.key) && value.equals(other.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * key.hashCode() + value.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+}
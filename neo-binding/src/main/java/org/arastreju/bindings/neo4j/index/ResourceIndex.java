@@ -20,6 +20,7 @@ import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
 import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
 import org.arastreju.bindings.neo4j.impl.NeoNodeResolver;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan;
 import org.arastreju.bindings.neo4j.query.NeoQueryResult;
 import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.Statement;
@@ -31,7 +32,10 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.index.IndexHits;
 import org.neo4j.index.lucene.QueryContext;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.arastreju.sge.SNOPS.uri;
 
@@ -49,6 +53,8 @@ import static org.arastreju.sge.SNOPS.uri;
 public class ResourceIndex implements NeoConstants {
 	
 	private final NeoIndex neoIndex;
+
+	private final GraphDataConnection connection;
 	
 	private final NeoNodeResolver resolver;
 	
@@ -60,8 +66,9 @@ public class ResourceIndex implements NeoConstants {
 	 * @param ctx The current conversation context.
 	 */
 	public ResourceIndex(GraphDataConnection connection, NeoConversationContext ctx) {
+		this.connection = connection;
 		this.resolver = new NeoNodeResolver(ctx);
-		this.neoIndex = new NeoIndex(ctx, connection.getIndexManager());
+		this.neoIndex = new NeoIndex(ctx, connection.getIndexRegistry(), connection.getIndexRepairQueue());
 	}
 
     /**
@@ -69,8 +76,9 @@ public class ResourceIndex implements NeoConstants {
      * @param ctx The current conversation context.
      */
     public ResourceIndex(NeoConversationContext ctx) {
+        this.connection = ctx.getConnection();
         this.resolver = new NeoNodeResolver(ctx);
-        this.neoIndex = new NeoIndex(ctx, ctx.getConnection().getIndexManager());
+        this.neoIndex = new NeoIndex(ctx, connection.getIndexRegistry(), connection.getIndexRepairQueue());
     }
 	
 	// -----------------------------------------------------
@@ -88,6 +96,28 @@ public class ResourceIndex implements NeoConstants {
     public QueryResult getAllResources() {
          return new NeoQueryResult(neoIndex.allNodes(), resolver);
     }
+
+    /**
+     * Enumerate the resources page by page, ordered by their node IDs. A page starts reading at the
+     * cursor's node ID, earlier pages are not read again. Its cost is proportional to the range of
+     * node IDs it spans, not to the page size: value nodes and the IDs of deleted nodes between the
+     * resources are read and skipped. Checking for more resources after a full page reads ahead to
+     * the next resource, for the last page up to the highest node ID in use.
+     * @param cursor The cursor, 0 for the first page, else the next cursor of the previous page.
+     * @param pageSize The maximum number of resources in the page.
+     * @return The page.
+     */
+    public ResourcePage getResources(final long cursor, final int pageSize) {
+        final Iterator<Node> nodes = new NodeRangeScan(connection).from(cursor).resourceNodes();
+        final List<ResourceNode> resources = new ArrayList<ResourceNode>(pageSize);
+        long nextCursor = cursor;
+        while (resources.size() < pageSize && nodes.hasNext()) {
+            final Node node = nodes.next();
+            resources.add(resolver.resolve(node));
+            nextCursor = node.getId() + 1;
+        }
+        return new ResourcePage(resources, nextCursor, nodes.hasNext());
+    }
 	
 	// -----------------------------------------------------
 	
@@ -112,6 +142,17 @@ public class ResourceIndex implements NeoConstants {
 	public QueryResult search(final QueryContext query) {
 		return new NeoQueryResult(neoIndex.search(query), resolver);
 	}
+
+	/**
+	 * Suggest resources for type-ahead. Only values of the suggest predicates configured in the
+	 * store settings are considered.
+	 * @param prefix The user's input.
+	 * @param max The maximum number of suggestions.
+	 * @return The suggested resources.
+	 */
+	public QueryResult suggest(final String prefix, final int max) {
+		return new NeoQueryResult(neoIndex.suggest(prefix, max), resolver);
+	}
 	
 	// -- ADD TO INDEX ------------------------------------
 	
@@ -127,6 +168,32 @@ public class ResourceIndex implements NeoConstants {
 	public void index(final Node neoNode, final ResourceNode resourceNode) {
 		neoIndex.index(neoNode, resourceNode.getQualifiedName());
 	}
+
+	public void index(final Node neoNode, final QualifiedName qn) {
+		neoIndex.index(neoNode, qn);
+	}
+
+	/**
+	 * Index a value statement given by plain strings.
+	 * @param subject The subject node.
+	 * @param predicate The predicate's URI.
+	 * @param value The value.
+	 * @param contextUri The statement's context, null for the index of the primary context.
+	 */
+	public void indexValue(final Node subject, final String predicate, final String value, final String contextUri) {
+		neoIndex.indexValue(subject, predicate, value, contextUri);
+	}
+
+	/**
+	 * Index a reference statement given by plain strings.
+	 * @param subject The subject node.
+	 * @param predicate The predicate's URI.
+	 * @param object The object's URI.
+	 * @param contextUri The statement's context, null for the index of the primary context.
+	 */
+	public void indexReference(final Node subject, final String predicate, final String object, final String contextUri) {
+		neoIndex.indexReference(subject, predicate, object, contextUri);
+	}
 	
 	/**
 	 * Re-index a node.
@@ -148,6 +215,41 @@ public class ResourceIndex implements NeoConstants {
 		neoIndex.remove(node);
 	}
 
+	/**
+	 * Remove a node, which is about to be deleted, from the resource index and from the statement
+	 * indexes of the primary context and the given contexts.
+	 * @param node The node.
+	 * @param contextUris The URIs of the contexts of the node's statements.
+	 */
+	public void removeFromAllIndexes(final Node node, final Collection<String> contextUris) {
+		neoIndex.removeCompletely(node, contextUris);
+	}
+
+	/**
+	 * Remove the index entries of a reference from subject to object.
+	 * @param subject The subject node.
+	 * @param predicate The predicate's URI.
+	 * @param object The object's URI.
+	 */
+	public void removeReference(final Node subject, final String predicate, final String object) {
+		neoIndex.remove(subject, predicate, object);
+		neoIndex.remove(subject, NeoIndex.INDEX_KEY_RESOURCE_RELATION, object);
+	}
+
+	/**
+	 * Remove the index entries of a reference from subject to object, in the index of the primary
+	 * context and in those of the given contexts.
+	 * @param subject The subject node.
+	 * @param predicate The predicate's URI.
+	 * @param object The object's URI.
+	 * @param contextUris The URIs of the statement's contexts.
+	 */
+	public void removeReference(final Node subject, final String predicate, final String object,
+			final Collection<String> contextUris) {
+		neoIndex.remove(subject, predicate, object, contextUris);
+		neoIndex.remove(subject, NeoIndex.INDEX_KEY_RESOURCE_RELATION, object, contextUris);
+	}
+
 	// -----------------------------------------------------
 	
 	/**
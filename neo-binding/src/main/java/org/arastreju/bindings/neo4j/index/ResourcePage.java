@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.arastreju.sge.model.nodes.ResourceNode;
+
+import java.util.List;
+
+/**
+ * <p>
+ *  A page of resources enumerated by {@link ResourceIndex#getResources(long, int)}.
+ * </p>
+ *
+ * <p>
+ *  Pages are read from the graph by a {@link org.arastreju.bindings.neo4j.impl.NodeRangeScan},
+ *  not from the index, so invalid index entries do not shorten them. Neither do value nodes and
+ *  deleted nodes, which are skipped. Only the last page may contain fewer resources than requested.
+ * </p>
+ */
+public class ResourcePage {
+
+	private final List<ResourceNode> resources;
+
+	private final long nextCursor;
+
+	private final boolean hasMore;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param resources The resources of this page.
+	 * @param nextCursor The cursor for the next page.
+	 * @param hasMore Flag if there are more resources.
+	 */
+	public ResourcePage(List<ResourceNode> resources, long nextCursor, boolean hasMore) {
+		this.resources = resources;
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+	}
+
+	// ----------------------------------------------------
+
+	public List<ResourceNode> getResources() {
+		return resources;
+	}
+
+	/**
+	 * @return The cursor to be passed for retrieving the next page.
+	 */
+	public long getNextCursor() {
+		return nextCursor;
+	}
+
+	public boolean hasMore() {
+		return hasMore;
+	}
+
+}
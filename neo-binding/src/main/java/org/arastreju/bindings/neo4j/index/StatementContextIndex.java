@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexHits;
+import org.neo4j.graphdb.index.IndexManager;
+import org.neo4j.graphdb.index.RelationshipIndex;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+/**
+ * <p>
+ *  Index of the relationships (statements) by their contexts. Allows to read all statements
+ *  of a context without scanning the whole graph. Statements without context are indexed under
+ *  a key of their own.
+ * </p>
+ *
+ * <p>
+ *  Stores written before statements without context were indexed have to be backfilled by
+ *  {@link org.arastreju.bindings.neo4j.tools.StatementContextIndexer} or the index rebuilder,
+ *  which mark the index as complete in its configuration, see {@link #isComplete()}. The index
+ *  of a new store is complete from the start.
+ * </p>
+ */
+public class StatementContextIndex implements NeoConstants {
+
+	/**
+	 * Relationship index for statements by context.
+	 */
+	private static final String INDEX_STATEMENT_CONTEXTS = "statement-contexts";
+
+	/**
+	 * Index key for statements without context.
+	 */
+	private static final String INDEX_KEY_NO_CONTEXT = "no-context";
+
+	/**
+	 * Configuration entry marking an index containing the statements without context.
+	 */
+	private static final String CONFIG_COMPLETE = "arastreju-without-context";
+
+	private static final String TRUE = "true";
+
+	private static final String[] NO_CONTEXT_URIS = new String[0];
+
+	// -----------------------------------------------------
+
+	private final IndexManager manager;
+
+	// -----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 */
+	public StatementContextIndex(IndexManager manager) {
+		this.manager = manager;
+	}
+
+	// -----------------------------------------------------
+
+	/**
+	 * Get all statements in given context.
+	 * @param contextUri The context's URI.
+	 * @return The relationships.
+	 */
+	public IndexHits<Relationship> lookup(String contextUri) {
+		return index().get(CONTEXT_URI, contextUri);
+	}
+
+	/**
+	 * Get all statements without context.
+	 * @return The relationships.
+	 */
+	public IndexHits<Relationship> lookupWithoutContext() {
+		return index().get(INDEX_KEY_NO_CONTEXT, TRUE);
+	}
+
+	/**
+	 * Get all relationships in the index.
+	 * @return The relationships, some of them may have been deleted.
+	 */
+	public IndexHits<Relationship> all() {
+		return index().query(new MatchAllDocsQuery());
+	}
+
+	/**
+	 * Check if the relationship is indexed for all contexts it is assigned to.
+	 * @param rel The relationship.
+	 * @return true if it is indexed completely.
+	 */
+	public boolean isIndexed(Relationship rel) {
+		if (!rel.hasProperty(PREDICATE_URI)) {
+			return true;
+		}
+		final String[] uris = getContextUris(rel);
+		if (uris.length == 0) {
+			return contains(INDEX_KEY_NO_CONTEXT, TRUE, rel);
+		}
+		for (String uri : uris) {
+			if (!contains(CONTEXT_URI, uri, rel)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Add the relationship to the index, for all contexts it is assigned to.
+	 * @param rel The relationship.
+	 */
+	public void index(Relationship rel) {
+		if (!rel.hasProperty(PREDICATE_URI)) {
+			return;
+		}
+		final Index<Relationship> index = index();
+		final String[] uris = getContextUris(rel);
+		if (uris.length == 0) {
+			index.add(rel, INDEX_KEY_NO_CONTEXT, TRUE);
+		}
+		for (String uri : uris) {
+			index.add(rel, CONTEXT_URI, uri);
+		}
+	}
+
+	/**
+	 * Remove the relationship from the index. Must be called before the relationship is deleted.
+	 * @param rel The relationship.
+	 */
+	public void remove(Relationship rel) {
+		if (rel.hasProperty(PREDICATE_URI)) {
+			index().remove(rel);
+		}
+	}
+
+	/**
+	 * Remove all entries of the relationship, without reading its properties. Used for entries
+	 * of relationships which have been deleted.
+	 * @param rel The relationship.
+	 */
+	public void purge(Relationship rel) {
+		index().remove(rel);
+	}
+
+	/**
+	 * Check if the index contains all statements, including those without context. This holds for
+	 * the index of a new store, see {@link #initialize(GraphDatabaseService)}, and for an index
+	 * completed by {@link #markComplete()}. An index written by an older version contains only
+	 * statements with context, a store written before this index existed has none at all.
+	 * @return true if the index is complete.
+	 */
+	public boolean isComplete() {
+		if (!manager.existsForRelationships(INDEX_STATEMENT_CONTEXTS)) {
+			return false;
+		}
+		return TRUE.equals(manager.getConfiguration(index()).get(CONFIG_COMPLETE));
+	}
+
+	/**
+	 * Mark the index as complete, after all statements of the store have been indexed.
+	 */
+	public void markComplete() {
+		manager.setConfiguration(index(), CONFIG_COMPLETE, TRUE);
+	}
+
+	/**
+	 * Create the index for a store without any relationships, it is complete from the start.
+	 * The index of an existing store is left as it is.
+	 * @param gdbService The store's graph database service.
+	 */
+	public void initialize(GraphDatabaseService gdbService) {
+		if (manager.existsForRelationships(INDEX_STATEMENT_CONTEXTS)
+				|| GlobalGraphOperations.at(gdbService).getAllRelationships().iterator().hasNext()) {
+			return;
+		}
+		final Transaction tx = gdbService.beginTx();
+		try {
+			markComplete();
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+	}
+
+	/**
+	 * Delete the whole index, e.g. before rebuilding it.
+	 */
+	public void delete() {
+		if (manager.existsForRelationships(INDEX_STATEMENT_CONTEXTS)) {
+			index().delete();
+		}
+	}
+
+	// -----------------------------------------------------
+
+	private RelationshipIndex index() {
+		return manager.forRelationships(INDEX_STATEMENT_CONTEXTS);
+	}
+
+	private String[] getContextUris(Relationship rel) {
+		return (String[]) rel.getProperty(CONTEXT_URI, NO_CONTEXT_URIS);
+	}
+
+	private boolean contains(String key, String value, Relationship rel) {
+		final IndexHits<Relationship> hits = index().get(key, value, rel.getStartNode(), null);
+		try {
+			for (Relationship hit : hits) {
+				if (hit.getId() == rel.getId()) {
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			hits.close();
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ *  Splits values into lower case tokens of letters and digits. The tokens are indexed as separate
+ *  terms, which allows full text and prefix searches without leading wildcards in the exact
+ *  statement indexes.
+ * </p>
+ */
+public final class TextTokenizer {
+
+	/**
+	 * Maximum number of distinct tokens indexed per value.
+	 */
+	public static final int MAX_TOKENS = 1000;
+
+	/**
+	 * Longer tokens are ignored.
+	 */
+	public static final int MAX_TOKEN_LENGTH = 255;
+
+	// ----------------------------------------------------
+
+	private TextTokenizer() {
+	}
+
+	/**
+	 * Maximum length of edge n-grams.
+	 */
+	public static final int MAX_GRAM_LENGTH = 15;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Get the edge n-grams, i.e. all prefixes up to {@link #MAX_GRAM_LENGTH} characters, of all tokens.
+	 * @param text The text.
+	 * @return The distinct n-grams.
+	 */
+	public static Set<String> edgeNGrams(String text) {
+		final Set<String> grams = new LinkedHashSet<String>();
+		for (String token : tokenize(text)) {
+			final int max = Math.min(token.length(), MAX_GRAM_LENGTH);
+			for (int i = 1; i <= max; i++) {
+				grams.add(token.substring(0, i));
+			}
+		}
+		return grams;
+	}
+
+	/**
+	 * @param text The text.
+	 * @return The distinct tokens in order of their first occurrence.
+	 */
+	public static Set<String> tokenize(String text) {
+		final Set<String> tokens = new LinkedHashSet<String>();
+		if (text == null) {
+			return tokens;
+		}
+		int start = -1;
+		for (int i = 0; i <= text.length() && tokens.size() < MAX_TOKENS; i++) {
+			final boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (tokenChar && start < 0) {
+				start = i;
+			} else if (!tokenChar && start >= 0) {
+				if (i - start <= MAX_TOKEN_LENGTH) {
+					tokens.add(text.substring(start, i).toLowerCase());
+				}
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+}
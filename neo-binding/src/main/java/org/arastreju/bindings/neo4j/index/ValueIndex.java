@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexHits;
+import org.neo4j.graphdb.index.IndexManager;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * <p>
+ *  Index of shared value nodes by their datatype, value and locale.
+ *  Values are indexed by a hash, so arbitrary long literals can be looked up.
+ * </p>
+ */
+public class ValueIndex implements NeoConstants {
+
+	/**
+	 * Index for shared value nodes.
+	 */
+	private static final String INDEX_VALUES = "values";
+
+	/**
+	 * Index key of the hash of datatype, value and locale.
+	 */
+	private static final String INDEX_KEY_VALUE_HASH = "value-hash";
+
+	// -----------------------------------------------------
+
+	private final IndexManager manager;
+
+	// -----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param manager The index manager.
+	 */
+	public ValueIndex(IndexManager manager) {
+		this.manager = manager;
+	}
+
+	// -----------------------------------------------------
+
+	/**
+	 * Find the shared value node.
+	 * @param datatype The datatype's name.
+	 * @param value The value.
+	 * @param locale The locale string or null.
+	 * @return The value node or null.
+	 */
+	public Node lookup(String datatype, String value, String locale) {
+		final IndexHits<Node> hits = index().get(INDEX_KEY_VALUE_HASH, hash(datatype, value, locale));
+		try {
+			for (Node candidate : hits) {
+				if (matches(candidate, datatype, value, locale)) {
+					return candidate;
+				}
+			}
+			return null;
+		} catch (NotFoundException e) {
+			// value node has been deleted but is still in index.
+			return null;
+		} finally {
+			hits.close();
+		}
+	}
+
+	/**
+	 * Add a value node to the index.
+	 * @param valueNode The value node.
+	 */
+	public void add(Node valueNode) {
+		index().add(valueNode, INDEX_KEY_VALUE_HASH, hash(valueNode));
+	}
+
+	/**
+	 * Add a value node to the index unless another node is already registered for its
+	 * datatype, value and locale. The index entry stays locked until the transaction ends,
+	 * so concurrent transactions registering an equal value will get this node.
+	 * @param valueNode The new value node.
+	 * @return The already registered value node or null, if the given node has been added.
+	 */
+	public Node putIfAbsent(Node valueNode) {
+		return index().putIfAbsent(valueNode, INDEX_KEY_VALUE_HASH, hash(valueNode));
+	}
+
+	/**
+	 * Check if a value node holds the given datatype, value and locale.
+	 * @param node The value node.
+	 * @param datatype The datatype's name.
+	 * @param value The value.
+	 * @param locale The locale string or null.
+	 * @return true if the node holds exactly this value.
+	 */
+	public boolean matches(Node node, String datatype, String value, String locale) {
+		return datatype.equals(node.getProperty(PROPERTY_DATATYPE, null))
+				&& value.equals(node.getProperty(PROPERTY_VALUE, null))
+				&& equal(locale, (String) node.getProperty(PROPERTY_LOCALE, null));
+	}
+
+	/**
+	 * Remove a value node from the index.
+	 * @param valueNode The value node.
+	 */
+	public void remove(Node valueNode) {
+		index().remove(valueNode);
+	}
+
+	// -----------------------------------------------------
+
+	private boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private String hash(Node valueNode) {
+		return hash((String) valueNode.getProperty(PROPERTY_DATATYPE),
+				(String) valueNode.getProperty(PROPERTY_VALUE),
+				(String) valueNode.getProperty(PROPERTY_LOCALE, null));
+	}
+
+	private String hash(String datatype, String value, String locale) {
+		final StringBuilder sb = new StringBuilder(datatype);
+		sb.append('|').append(locale != null ? locale : "").append('|').append(value);
+		try {
+			return DigestUtils.md5Hex(sb.toString().getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private Index<Node> index() {
+		return manager.forNodes(INDEX_VALUES);
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.arastreju.bindings.neo4j.impl.ValueNodeAccess;
+import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.apriori.Aras;
+import org.arastreju.sge.apriori.RDF;
+import org.arastreju.sge.naming.QualifiedName;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *  Writes parsed statements directly to the graph, bypassing the association keepers and the
+ *  association handler. Each call is one transaction. Statements of a quad are indexed in the index
+ *  of the quad's context, triples in the index of the conversation's primary context. Contexts not
+ *  yet existing are created as resources of type aras:Context.
+ * </p>
+ *
+ * <p>
+ *  No inferences are created and existing statements are not checked for duplicates, so statements
+ *  are imported as they are.
+ * </p>
+ */
+public class BulkStatementWriter implements NeoConstants {
+
+	private static final String RDF_TYPE = SNOPS.uri(RDF.TYPE);
+
+	private static final String CONTEXT_CLASS = SNOPS.uri(Aras.CONTEXT);
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	private final ResourceIndex index;
+
+	private final StatementContextIndex statementContexts;
+
+	private final ValueNodeAccess valueNodes;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 */
+	public BulkStatementWriter(NeoConversationContext context) {
+		this.gdbService = context.getConnection().getStore().getGdbService();
+		this.index = context.getResourceIndex();
+		this.statementContexts = new StatementContextIndex(context.getConnection().getIndexManager());
+		this.valueNodes = new ValueNodeAccess(context.getConnection().getStore());
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Write the statements, grouped by subject, in one transaction.
+	 * @param statementsBySubject The statements grouped by their subject.
+	 * @return The number of created relationships.
+	 */
+	public int write(Collection<List<ParsedStatement>> statementsBySubject) {
+		final Map<String, Node> nodes = new HashMap<String, Node>();
+		final Set<String> contexts = new HashSet<String>();
+		final long timestamp = new Date().getTime();
+		int created = 0;
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (List<ParsedStatement> statements : statementsBySubject) {
+				if (statements.isEmpty()) {
+					continue;
+				}
+				final Node subject = getOrCreate(statements.get(0).getSubject(), nodes);
+				for (ParsedStatement stmt : statements) {
+					if (stmt.getContext() != null && contexts.add(stmt.getContext())) {
+						ensureContext(stmt.getContext(), timestamp, nodes);
+					}
+					create(subject, stmt, timestamp, nodes);
+					created++;
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		return created;
+	}
+
+	// ----------------------------------------------------
+
+	private void create(Node subject, ParsedStatement stmt, long timestamp, Map<String, Node> nodes) {
+		final Relationship rel;
+		if (stmt.isLiteral()) {
+			final Node value = valueNodes.getOrCreate(stmt.getDatatype(), stmt.getObject(), stmt.getLocale());
+			rel = subject.createRelationshipTo(value, ArasRelTypes.VALUE);
+			index.indexValue(subject, stmt.getPredicate(), stmt.getObject(), stmt.getContext());
+		} else {
+			final Node object = getOrCreate(stmt.getObject(), nodes);
+			rel = subject.createRelationshipTo(object, ArasRelTypes.REFERENCE);
+			index.indexReference(subject, stmt.getPredicate(), stmt.getObject(), stmt.getContext());
+		}
+		rel.setProperty(PREDICATE_URI, stmt.getPredicate());
+		rel.setProperty(TIMESTAMP, timestamp);
+		if (stmt.getContext() != null) {
+			rel.setProperty(CONTEXT_URI, new String[] { stmt.getContext() });
+		}
+		statementContexts.index(rel);
+	}
+
+	/**
+	 * Make sure the context exists as a resource of type aras:Context, like a registered context,
+	 * so it can be resolved and is listed by the organizer.
+	 */
+	private void ensureContext(String uri, long timestamp, Map<String, Node> nodes) {
+		final Node context = getOrCreate(uri, nodes);
+		for (Relationship rel : context.getRelationships(ArasRelTypes.REFERENCE, Direction.OUTGOING)) {
+			if (RDF_TYPE.equals(rel.getProperty(PREDICATE_URI, null))
+					&& CONTEXT_CLASS.equals(rel.getEndNode().getProperty(PROPERTY_URI, null))) {
+				return;
+			}
+		}
+		final Relationship type = context.createRelationshipTo(getOrCreate(CONTEXT_CLASS, nodes), ArasRelTypes.REFERENCE);
+		type.setProperty(PREDICATE_URI, RDF_TYPE);
+		type.setProperty(TIMESTAMP, timestamp);
+		statementContexts.index(type);
+		index.indexReference(context, RDF_TYPE, CONTEXT_CLASS, null);
+	}
+
+	private Node getOrCreate(String uri, Map<String, Node> nodes) {
+		Node node = nodes.get(uri);
+		if (node != null) {
+			return node;
+		}
+		final QualifiedName qn = QualifiedName.create(uri);
+		node = index.findNeoNode(qn);
+		if (node == null) {
+			node = gdbService.createNode();
+			node.setProperty(PROPERTY_URI, uri);
+			index.index(node, qn);
+		}
+		nodes.put(uri, node);
+		return node;
+	}
+
+}
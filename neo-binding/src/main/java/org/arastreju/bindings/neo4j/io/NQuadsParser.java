@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+/**
+ * <p>
+ *  Parser for single N-Triples and N-Quads lines. Blank nodes are mapped to URIs in a dedicated
+ *  namespace, so the same label always denotes the same resource, also when resuming an import.
+ *  Instances are not thread safe.
+ * </p>
+ */
+public class NQuadsParser {
+
+	public static final String BLANK_NODE_NAMESPACE = "http://arastreju.org/blank-nodes#";
+
+	// ----------------------------------------------------
+
+	private String line;
+
+	private int pos;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Parse a line.
+	 * @param input The line.
+	 * @return The statement or null if the line is empty or a comment.
+	 * @throws IllegalArgumentException if the line is not valid.
+	 */
+	public ParsedStatement parse(String input) {
+		this.line = input;
+		this.pos = 0;
+		skipWhitespace();
+		if (pos >= line.length() || line.charAt(pos) == '#') {
+			return null;
+		}
+		final String subject = readResource();
+		skipWhitespace();
+		final String predicate = readIri();
+		skipWhitespace();
+
+		final String object;
+		final boolean literal;
+		String datatype = null;
+		String locale = null;
+		if (peek() == '"') {
+			literal = true;
+			object = readLiteral();
+			if (peek() == '@') {
+				pos++;
+				locale = RdfDatatypes.toStoredLocale(readLanguageTag());
+			} else if (peek() == '^') {
+				expect('^');
+				expect('^');
+				datatype = readIri();
+			}
+			datatype = RdfDatatypes.toDatatype(datatype);
+		} else {
+			literal = false;
+			object = readResource();
+		}
+		skipWhitespace();
+
+		String context = null;
+		if (peek() == '<' || peek() == '_') {
+			context = readResource();
+			skipWhitespace();
+		}
+		expect('.');
+		skipWhitespace();
+		if (pos < line.length() && line.charAt(pos) != '#') {
+			throw error("Unexpected characters after end of statement");
+		}
+		return new ParsedStatement(subject, predicate, object, literal, datatype, locale, context);
+	}
+
+	// ----------------------------------------------------
+
+	private String readResource() {
+		if (peek() == '_') {
+			expect('_');
+			expect(':');
+			final int start = pos;
+			while (pos < line.length() && !isWhitespace(line.charAt(pos)) && line.charAt(pos) != '.') {
+				pos++;
+			}
+			if (start == pos) {
+				throw error("Empty blank node label");
+			}
+			return BLANK_NODE_NAMESPACE + line.substring(start, pos);
+		}
+		return readIri();
+	}
+
+	private String readIri() {
+		expect('<');
+		final StringBuilder sb = new StringBuilder();
+		while (true) {
+			if (pos >= line.length()) {
+				throw error("Unterminated IRI");
+			}
+			final char c = line.charAt(pos++);
+			if (c == '>') {
+				return sb.toString();
+			} else if (c == '\\') {
+				readUnicodeEscape(sb);
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+
+	private String readLiteral() {
+		expect('"');
+		final StringBuilder sb = new StringBuilder();
+		while (true) {
+			if (pos >= line.length()) {
+				throw error("Unterminated literal");
+			}
+			final char c = line.charAt(pos++);
+			if (c == '"') {
+				return sb.toString();
+			} else if (c != '\\') {
+				sb.append(c);
+				continue;
+			}
+			if (pos >= line.length()) {
+				throw error("Unterminated escape sequence");
+			}
+			switch (line.charAt(pos)) {
+				case 't': sb.append('\t'); pos++; break;
+				case 'b': sb.append('\b'); pos++; break;
+				case 'n': sb.append('\n'); pos++; break;
+				case 'r': sb.append('\r'); pos++; break;
+				case 'f': sb.append('\f'); pos++; break;
+				case '"': sb.append('"'); pos++; break;
+				case '\'': sb.append('\''); pos++; break;
+				case '\\': sb.append('\\'); pos++; break;
+				default: readUnicodeEscape(sb);
+			}
+		}
+	}
+
+	private void readUnicodeEscape(StringBuilder sb) {
+		final char type = pos < line.length() ? line.charAt(pos++) : ' ';
+		final int length;
+		if (type == 'u') {
+			length = 4;
+		} else if (type == 'U') {
+			length = 8;
+		} else {
+			throw error("Invalid escape sequence");
+		}
+		if (pos + length > line.length()) {
+			throw error("Invalid unicode escape sequence");
+		}
+		try {
+			sb.appendCodePoint(Integer.parseInt(line.substring(pos, pos + length), 16));
+		} catch (IllegalArgumentException e) {
+			throw error("Invalid unicode escape sequence");
+		}
+		pos += length;
+	}
+
+	private String readLanguageTag() {
+		final int start = pos;
+		while (pos < line.length() && (Character.isLetterOrDigit(line.charAt(pos)) || line.charAt(pos) == '-')) {
+			pos++;
+		}
+		if (start == pos) {
+			throw error("Empty language tag");
+		}
+		return line.substring(start, pos);
+	}
+
+	// ----------------------------------------------------
+
+	private char peek() {
+		return pos < line.length() ? line.charAt(pos) : 0;
+	}
+
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	private void skipWhitespace() {
+		while (pos < line.length() && isWhitespace(line.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	private boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private IllegalArgumentException error(String msg) {
+		return new IllegalArgumentException(msg + " at position " + pos + ": " + line);
+	}
+
+}
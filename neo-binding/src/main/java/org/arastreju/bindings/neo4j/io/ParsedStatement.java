@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+/**
+ * <p>
+ *  A statement as read from an N-Triples or N-Quads line, consisting only of strings.
+ * </p>
+ */
+public class ParsedStatement {
+
+	private final String subject;
+
+	private final String predicate;
+
+	private final String object;
+
+	private final boolean literal;
+
+	private final String datatype;
+
+	private final String locale;
+
+	private final String context;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param subject The subject's URI.
+	 * @param predicate The predicate's URI.
+	 * @param object The object's URI or the literal value.
+	 * @param literal Flag if the object is a literal.
+	 * @param datatype The elementary data type of a literal.
+	 * @param locale The locale of a literal in stored format, may be null.
+	 * @param context The context's URI, may be null.
+	 */
+	public ParsedStatement(String subject, String predicate, String object, boolean literal,
+			String datatype, String locale, String context) {
+		this.subject = subject;
+		this.predicate = predicate;
+		this.object = object;
+		this.literal = literal;
+		this.datatype = datatype;
+		this.locale = locale;
+		this.context = context;
+	}
+
+	// ----------------------------------------------------
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public String getPredicate() {
+		return predicate;
+	}
+
+	public String getObject() {
+		return object;
+	}
+
+	public boolean isLiteral() {
+		return literal;
+	}
+
+	public String getDatatype() {
+		return datatype;
+	}
+
+	public String getLocale() {
+		return locale;
+	}
+
+	public String getContext() {
+		return context;
+	}
+
+	@Override
+	public String toString() {
+		return subject + " " + predicate + " " + object + (context != null ? " " + context : "");
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+import org.arastreju.sge.model.ElementaryDataType;
+
+/**
+ * <p>
+ *  Mapping between Arastreju's elementary data types and RDF datatype IRIs, and between the
+ *  locales stored in value nodes and RDF language tags.
+ * </p>
+ */
+public final class RdfDatatypes {
+
+	public static final String DATATYPE_NAMESPACE = "http://arastreju.org/datatypes#";
+
+	public static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+	public static final String STRING = "STRING";
+
+	// ----------------------------------------------------
+
+	private RdfDatatypes() {
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Get the datatype IRI for an elementary data type.
+	 * @param datatype The name of the elementary data type.
+	 * @return The IRI.
+	 */
+	public static String toIri(String datatype) {
+		if ("INTEGER".equals(datatype)) {
+			return XSD + "integer";
+		} else if ("DECIMAL".equals(datatype)) {
+			return XSD + "decimal";
+		} else if ("BOOLEAN".equals(datatype)) {
+			return XSD + "boolean";
+		} else {
+			return DATATYPE_NAMESPACE + datatype;
+		}
+	}
+
+	/**
+	 * Get the elementary data type for a datatype IRI. Unknown datatypes, including names in the
+	 * Arastreju namespace which are no elementary data type, are mapped to STRING.
+	 * @param iri The datatype IRI, may be null for plain literals.
+	 * @return The name of the elementary data type.
+	 */
+	public static String toDatatype(String iri) {
+		if (iri == null) {
+			return STRING;
+		} else if (iri.startsWith(DATATYPE_NAMESPACE)) {
+			return toElementaryName(iri.substring(DATATYPE_NAMESPACE.length()));
+		} else if (iri.equals(XSD + "integer") || iri.equals(XSD + "int") || iri.equals(XSD + "long")) {
+			return "INTEGER";
+		} else if (iri.equals(XSD + "decimal") || iri.equals(XSD + "double") || iri.equals(XSD + "float")) {
+			return "DECIMAL";
+		} else if (iri.equals(XSD + "boolean")) {
+			return "BOOLEAN";
+		} else {
+			return STRING;
+		}
+	}
+
+	// ----------------------------------------------------
+
+	private static String toElementaryName(String name) {
+		for (ElementaryDataType type : ElementaryDataType.values()) {
+			if (type.name().equals(name)) {
+				return name;
+			}
+		}
+		return STRING;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Convert the locale as stored in value nodes (e.g. 'de_DE' or 'en_') to a language tag.
+	 * @param storedLocale The stored locale.
+	 * @return The language tag.
+	 */
+	public static String toLanguageTag(String storedLocale) {
+		final int sep = storedLocale.indexOf('_');
+		if (sep < 0) {
+			return storedLocale;
+		} else if (sep == storedLocale.length() - 1) {
+			return storedLocale.substring(0, sep);
+		} else {
+			return storedLocale.substring(0, sep) + "-" + storedLocale.substring(sep + 1);
+		}
+	}
+
+	/**
+	 * Convert a language tag to the locale format stored in value nodes.
+	 * @param languageTag The language tag, e.g. 'de-DE'.
+	 * @return The stored locale or null.
+	 */
+	public static String toStoredLocale(String languageTag) {
+		if (languageTag == null || languageTag.length() == 0) {
+			return null;
+		}
+		final int sep = languageTag.indexOf('-');
+		if (sep < 0) {
+			return languageTag.toLowerCase() + "_";
+		} else {
+			return languageTag.substring(0, sep).toLowerCase() + "_" + languageTag.substring(sep + 1).toUpperCase();
+		}
+	}
+
+}
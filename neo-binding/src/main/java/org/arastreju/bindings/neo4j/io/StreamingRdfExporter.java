@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+import org.arastreju.bindings.neo4j.ArasRelTypes;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * <p>
+ *  Exporter writing all statements of a store as N-Triples or N-Quads. Nodes and relationships are
+ *  read directly from the store and written through a buffered channel, so no resource nodes or
+ *  association keepers are created and memory consumption does not depend on the size of the store.
+ * </p>
+ *
+ * <p>
+ *  Values of type STRING are written as plain literals with language tag, values of other types
+ *  as typed literals. The given output stream is not closed.
+ * </p>
+ */
+public class StreamingRdfExporter implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingRdfExporter.class);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param gdbService The graph database to be exported.
+	 */
+	public StreamingRdfExporter(GraphDatabaseService gdbService) {
+		this.gdbService = gdbService;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Export all statements.
+	 * @param out The stream to write to.
+	 * @param format The format.
+	 * @return The number of written lines.
+	 * @throws IOException on write errors.
+	 */
+	public long export(OutputStream out, RdfExportFormat format) throws IOException {
+		final LineChannel channel = new LineChannel(Channels.newChannel(out));
+		final StringBuilder line = new StringBuilder(256);
+		long written = 0;
+		for (Node node : GlobalGraphOperations.at(gdbService).getAllNodes()) {
+			if (!node.hasProperty(PROPERTY_URI)) {
+				continue;
+			}
+			final String subject = node.getProperty(PROPERTY_URI).toString();
+			for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+				if (!rel.hasProperty(PREDICATE_URI)) {
+					continue;
+				}
+				line.setLength(0);
+				appendIri(line, subject).append(' ');
+				appendIri(line, rel.getProperty(PREDICATE_URI).toString()).append(' ');
+				appendObject(line, rel);
+				final int statementLength = line.length();
+				if (format == RdfExportFormat.N_QUADS && rel.hasProperty(CONTEXT_URI)) {
+					for (String ctx : (String[]) rel.getProperty(CONTEXT_URI)) {
+						line.setLength(statementLength);
+						line.append(' ');
+						appendIri(line, ctx).append(" .\n");
+						channel.write(line);
+						written++;
+					}
+				} else {
+					line.append(" .\n");
+					channel.write(line);
+					written++;
+				}
+				if (written % 100000 == 0) {
+					LOGGER.debug("Exported {} statements.", written);
+				}
+			}
+		}
+		channel.flush();
+		LOGGER.info("Finished export of {} statements.", written);
+		return written;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Append an IRI in angle brackets, escaping characters not allowed in N-Triples IRIs.
+	 */
+	static StringBuilder appendIri(StringBuilder sb, String iri) {
+		sb.append('<');
+		for (int i = 0; i < iri.length(); i++) {
+			final char c = iri.charAt(i);
+			if (c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{' || c == '}'
+					|| c == '|' || c == '^' || c == '`' || c == '\\') {
+				appendUnicodeEscape(sb, c);
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('>');
+	}
+
+	/**
+	 * Append a quoted and escaped literal.
+	 */
+	static StringBuilder appendLiteral(StringBuilder sb, String value) {
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+				case '\\': sb.append("\\\\"); break;
+				case '"': sb.append("\\\""); break;
+				case '\n': sb.append("\\n"); break;
+				case '\r': sb.append("\\r"); break;
+				case '\t': sb.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						appendUnicodeEscape(sb, c);
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		return sb.append('"');
+	}
+
+	// ----------------------------------------------------
+
+	private void appendObject(StringBuilder sb, Relationship rel) {
+		final Node object = rel.getEndNode();
+		if (rel.isType(ArasRelTypes.REFERENCE)) {
+			appendIri(sb, object.getProperty(PROPERTY_URI).toString());
+			return;
+		}
+		appendLiteral(sb, String.valueOf(object.getProperty(PROPERTY_VALUE)));
+		final String datatype = (String) object.getProperty(PROPERTY_DATATYPE);
+		if (RdfDatatypes.STRING.equals(datatype)) {
+			final String locale = (String) object.getProperty(PROPERTY_LOCALE, null);
+			if (locale != null && locale.length() > 0) {
+				sb.append('@').append(RdfDatatypes.toLanguageTag(locale));
+			}
+		} else {
+			sb.append("^^");
+			appendIri(sb, RdfDatatypes.toIri(datatype));
+		}
+	}
+
+	private static void appendUnicodeEscape(StringBuilder sb, char c) {
+		final String hex = Integer.toHexString(c).toUpperCase();
+		sb.append("\\u");
+		for (int i = hex.length(); i < 4; i++) {
+			sb.append('0');
+		}
+		sb.append(hex);
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Encodes lines into a fixed size byte buffer which is drained to the channel when full.
+	 */
+	private static class LineChannel {
+
+		private final WritableByteChannel channel;
+
+		private final CharsetEncoder encoder = UTF_8.newEncoder();
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		LineChannel(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		void write(CharSequence line) throws IOException {
+			final CharBuffer chars = CharBuffer.wrap(line);
+			while (true) {
+				final CoderResult result = encoder.encode(chars, buffer, false);
+				if (result.isOverflow()) {
+					drain();
+				} else if (result.isUnderflow()) {
+					return;
+				} else {
+					result.throwException();
+				}
+			}
+		}
+
+		void flush() throws IOException {
+			encoder.encode(CharBuffer.allocate(0), buffer, true);
+			encoder.flush(buffer);
+			drain();
+			encoder.reset();
+		}
+
+		private void drain() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.NeoConversationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *  Importer for N-Triples and N-Quads. The input is read in chunks of lines which are parsed in
+ *  parallel on the connection's worker threads. Parsed chunks are written strictly in input order,
+ *  each chunk in one transaction through the {@link BulkStatementWriter}. Graph labels of N-Quads
+ *  are mapped to the statements' contexts.
+ * </p>
+ *
+ * <p>
+ *  After a failure the number of lines already committed is available by
+ *  {@link #getCommittedLines()}. The import can be resumed by skipping these lines.
+ * </p>
+ */
+public class StreamingRdfImporter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingRdfImporter.class);
+
+	public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+	// ----------------------------------------------------
+
+	private final NeoConversationContext context;
+
+	private final BulkStatementWriter writer;
+
+	private final int chunkSize;
+
+	private final int parallelism;
+
+	private volatile long committedLines;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 */
+	public StreamingRdfImporter(NeoConversationContext context) {
+		this(context, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param context The conversation context.
+	 * @param chunkSize The number of lines parsed and written at once.
+	 */
+	public StreamingRdfImporter(NeoConversationContext context, int chunkSize) {
+		this.context = context;
+		this.writer = new BulkStatementWriter(context);
+		this.chunkSize = chunkSize;
+		this.parallelism = Runtime.getRuntime().availableProcessors() + 1;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Import all statements from the stream.
+	 * @param in The UTF-8 encoded input, will not be closed.
+	 * @param skipLines The number of lines to skip, e.g. when resuming a failed import.
+	 * @return The number of committed lines, including the skipped ones.
+	 * @throws IOException on read errors.
+	 */
+	public long importStatements(InputStream in, long skipLines) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		final GraphDataConnection connection = context.getConnection();
+		final LinkedList<Future<Chunk>> pending = new LinkedList<Future<Chunk>>();
+		final long start = System.currentTimeMillis();
+		long statements = 0;
+
+		committedLines = skip(reader, skipLines);
+		long lineNumber = committedLines;
+		try {
+			List<String> lines;
+			while (!(lines = readLines(reader)).isEmpty()) {
+				pending.add(connection.submit(new ParseTask(lineNumber, lines)));
+				lineNumber += lines.size();
+				if (pending.size() >= parallelism) {
+					statements += write(pending.removeFirst(), start, statements);
+				}
+			}
+			while (!pending.isEmpty()) {
+				statements += write(pending.removeFirst(), start, statements);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.error("Import failed. " + committedLines + " lines have been committed and can be skipped on resume.");
+			throw e;
+		} finally {
+			for (Future<Chunk> future : pending) {
+				future.cancel(true);
+			}
+		}
+		LOGGER.info("Finished import of {} statements, {} lines committed.", statements, committedLines);
+		return committedLines;
+	}
+
+	/**
+	 * @return The number of lines committed so far, including skipped lines.
+	 */
+	public long getCommittedLines() {
+		return committedLines;
+	}
+
+	// ----------------------------------------------------
+
+	private int write(Future<Chunk> future, long start, long written) {
+		final Chunk chunk;
+		try {
+			chunk = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Import has been interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("Could not parse chunk.", e.getCause());
+		}
+		final int created = writer.write(chunk.statementsBySubject.values());
+		committedLines = chunk.firstLine + chunk.lineCount;
+		final long millis = Math.max(1, System.currentTimeMillis() - start);
+		LOGGER.info("Imported {} lines, {} statements ({} statements/s).",
+				new Object[] { committedLines, written + created, (written + created) * 1000 / millis });
+		return created;
+	}
+
+	private long skip(BufferedReader reader, long lines) throws IOException {
+		long skipped = 0;
+		while (skipped < lines && reader.readLine() != null) {
+			skipped++;
+		}
+		return skipped;
+	}
+
+	private List<String> readLines(BufferedReader reader) throws IOException {
+		final List<String> lines = new ArrayList<String>(chunkSize);
+		String line;
+		while (lines.size() < chunkSize && (line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	// ----------------------------------------------------
+
+	private static class Chunk {
+
+		private final long firstLine;
+
+		private final int lineCount;
+
+		private final Map<String, List<ParsedStatement>> statementsBySubject = new LinkedHashMap<String, List<ParsedStatement>>();
+
+		Chunk(long firstLine, int lineCount) {
+			this.firstLine = firstLine;
+			this.lineCount = lineCount;
+		}
+
+		void add(ParsedStatement stmt) {
+			List<ParsedStatement> list = statementsBySubject.get(stmt.getSubject());
+			if (list == null) {
+				list = new ArrayList<ParsedStatement>();
+				statementsBySubject.put(stmt.getSubject(), list);
+			}
+			list.add(stmt);
+		}
+	}
+
+	private static class ParseTask implements Callable<Chunk> {
+
+		private final long firstLine;
+
+		private final List<String> lines;
+
+		ParseTask(long firstLine, List<String> lines) {
+			this.firstLine = firstLine;
+			this.lines = lines;
+		}
+
+		public Chunk call() {
+			final NQuadsParser parser = new NQuadsParser();
+			final Chunk chunk = new Chunk(firstLine, lines.size());
+			for (int i = 0; i < lines.size(); i++) {
+				try {
+					final ParsedStatement stmt = parser.parse(lines.get(i));
+					if (stmt != null) {
+						chunk.add(stmt);
+					}
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Invalid statement in line " + (firstLine + i + 1) + ": " + e.getMessage(), e);
+				}
+			}
+			return chunk;
+		}
+	}
+
+}
@@ -17,10 +17,13 @@
 package org.arastreju.bindings.neo4j.query;
 
 import java.util.Arrays;
+import java.util.Set;
 
 import org.arastreju.bindings.neo4j.index.NeoIndex;
 import org.arastreju.bindings.neo4j.index.ResourceIndex;
+import org.arastreju.bindings.neo4j.index.TextTokenizer;
 import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.query.FieldParam;
 import org.arastreju.sge.query.QueryBuilder;
 import org.arastreju.sge.query.QueryException;
 import org.arastreju.sge.query.QueryExpression;
@@ -49,6 +52,8 @@ public class NeoQueryBuilder extends QueryBuilder {
 	private final Logger logger = LoggerFactory.getLogger(NeoQueryBuilder.class);
 	
 	private final ResourceIndex index;
+
+	private boolean eventuallyConsistent;
 	
 	// -----------------------------------------------------
 	
@@ -57,11 +62,35 @@ public class NeoQueryBuilder extends QueryBuilder {
 	 * @param index The index.
 	 */
 	public NeoQueryBuilder(final ResourceIndex index) {
+		this(index, true);
+	}
+
+	/**
+	 * Constructor.
+	 * @param index The index.
+	 * @param eventuallyConsistent Flag if the query shall ignore uncommitted changes of the current transaction.
+	 */
+	public NeoQueryBuilder(final ResourceIndex index, final boolean eventuallyConsistent) {
 		this.index = index;
+		this.eventuallyConsistent = eventuallyConsistent;
 	}
 	
 	// -----------------------------------------------------
 
+	/**
+	 * Choose whether this query shall see the uncommitted changes of the current transaction.
+	 * Eventually consistent queries do not merge the transaction's index changes and are faster
+	 * under write load.
+	 * @param eventuallyConsistent Flag if uncommitted changes shall be ignored.
+	 * @return this.
+	 */
+	public NeoQueryBuilder setEventuallyConsistent(final boolean eventuallyConsistent) {
+		this.eventuallyConsistent = eventuallyConsistent;
+		return this;
+	}
+
+	// -----------------------------------------------------
+
 	/** 
 	 * {@inheritDoc}
 	 */
@@ -77,13 +106,44 @@ public class NeoQueryBuilder extends QueryBuilder {
 		return result.getSingleNode();
 	}
 	
+	/**
+	 * Add a full text condition: the resource must have values containing all words of the text.
+	 * @param text The text.
+	 * @return this.
+	 */
+	public NeoQueryBuilder addFullText(final String text) {
+		final Set<String> tokens = TextTokenizer.tokenize(text);
+		if (tokens.isEmpty()) {
+			throw new QueryException("Invalid full text query: " + text);
+		}
+		addTokens(tokens.toArray(new String[tokens.size()]), false);
+		return this;
+	}
+
+	/**
+	 * Add a prefix condition: the resource must have values containing all words of the text,
+	 * the last one possibly incomplete. Only trailing wildcards are used.
+	 * @param prefix The prefix, e.g. the input of a search field.
+	 * @return this.
+	 */
+	public NeoQueryBuilder addPrefix(final String prefix) {
+		final Set<String> tokens = TextTokenizer.tokenize(prefix);
+		if (tokens.isEmpty()) {
+			throw new QueryException("Invalid prefix query: " + prefix);
+		}
+		addTokens(tokens.toArray(new String[tokens.size()]), true);
+		return this;
+	}
+
 	// -----------------------------------------------------
 	
 	protected QueryContext toQueryContext() {
 		final String queryString = toQueryString();
 		logger.debug("Query string: " + queryString);
 		final QueryContext qctx = new QueryContext(toQueryString());
-		qctx.tradeCorrectnessForSpeed();
+		if (eventuallyConsistent) {
+			qctx.tradeCorrectnessForSpeed();
+		}
 		if (getSortCriteria() != null) {
 			String[] columns = getSortCriteria().getColumns();
 			if (columns.length > 1) {
@@ -111,6 +171,19 @@ public class NeoQueryBuilder extends QueryBuilder {
 	
 	// -----------------------------------------------------
 
+	private void addTokens(final String[] tokens, final boolean lastIsPrefix) {
+		if (tokens.length > 1) {
+			beginAnd();
+		}
+		for (int i = 0; i < tokens.length; i++) {
+			final boolean prefix = lastIsPrefix && i == tokens.length - 1;
+			add(new FieldParam(NeoIndex.INDEX_KEY_RESOURCE_TEXT, prefix ? tokens[i] + "*" : tokens[i]));
+		}
+		if (tokens.length > 1) {
+			end();
+		}
+	}
+
 	private void append(final QueryExpression exp, final StringBuilder sb) {
 		if (exp.isLeaf()) {
 			appendLeaf(exp.getQueryParam(), sb);
@@ -20,12 +20,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.arastreju.bindings.neo4j.NeoConstants;
 import org.arastreju.bindings.neo4j.impl.NeoNodeResolver;
+import org.arastreju.sge.SNOPS;
+import org.arastreju.sge.model.ResourceID;
 import org.arastreju.sge.model.nodes.ResourceNode;
+import org.arastreju.sge.naming.QualifiedName;
 import org.arastreju.sge.query.Query;
 import org.arastreju.sge.query.QueryResult;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.index.IndexHits;
 
 /**
@@ -104,6 +110,33 @@ public class NeoQueryResult implements QueryResult {
 		return result;
 	}
 
+	/**
+	 * Like {@link #toList(int, int)}, but the associations of all nodes on the page are resolved
+	 * in parallel before returning, instead of lazily one node after the other.
+	 * @param offset The offset.
+	 * @param max The maximum number of nodes.
+	 * @return The nodes with prefetched associations.
+	 */
+	public List<ResourceNode> toPrefetchedList(int offset, int max) {
+		final List<ResourceNode> result = toList(offset, max);
+		resolver.getConversationContext().prefetchAssociations(result);
+		return result;
+	}
+
+	/**
+	 * Get the IDs of all resulting nodes lazily, without attaching them to the conversation.
+	 * The hits are read while iterating, so the result must not be closed before. Nodes deleted
+	 * meanwhile are skipped.
+	 * @return The IDs.
+	 */
+	public Iterable<ResourceID> ids() {
+		return new Iterable<ResourceID>() {
+			public Iterator<ResourceID> iterator() {
+				return new IdIterator();
+			}
+		};
+	}
+
 	public boolean isEmpty() {
 		return hits.size() <= 0;
 	}
@@ -145,4 +178,34 @@ public class NeoQueryResult implements QueryResult {
 
 	}
 
+	class IdIterator implements Iterator<ResourceID> {
+
+		private ResourceID next;
+
+		public boolean hasNext() {
+			while (next == null && hits.hasNext()) {
+				try {
+					next = SNOPS.id(QualifiedName.create(hits.next().getProperty(NeoConstants.PROPERTY_URI).toString()));
+				} catch (NotFoundException e) {
+					// node has been deleted meanwhile.
+				}
+			}
+			return next != null;
+		}
+
+		public ResourceID next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final ResourceID result = next;
+			next = null;
+			return result;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *  Result of a consistency check of the indexes against the graph. Only the counters and a bounded
+ *  number of sample issues are kept, so the report's size does not depend on the size of the store.
+ *  Thread safe.
+ * </p>
+ */
+public class ConsistencyReport {
+
+	/**
+	 * Kinds of inconsistencies.
+	 */
+	public enum Issue {
+		/**
+		 * An element of the graph has no or incomplete index entries.
+		 */
+		MISSING,
+		/**
+		 * An index entry refers to a deleted element or to an element not belonging to the index.
+		 */
+		STALE,
+		/**
+		 * Several resource nodes are indexed with the same URI.
+		 */
+		DUPLICATE
+	}
+
+	public static final int MAX_SAMPLES = 100;
+
+	// ----------------------------------------------------
+
+	private final Map<Issue, AtomicLong> counts = new EnumMap<Issue, AtomicLong>(Issue.class);
+
+	private final AtomicLong checked = new AtomicLong();
+
+	private final AtomicLong repaired = new AtomicLong();
+
+	private final List<String> samples = new ArrayList<String>();
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 */
+	public ConsistencyReport() {
+		for (Issue issue : Issue.values()) {
+			counts.put(issue, new AtomicLong());
+		}
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param issue The kind of issue.
+	 * @return The number of issues of this kind.
+	 */
+	public long getCount(Issue issue) {
+		return counts.get(issue).get();
+	}
+
+	/**
+	 * @return The number of all issues.
+	 */
+	public long getIssueCount() {
+		long total = 0;
+		for (AtomicLong count : counts.values()) {
+			total += count.get();
+		}
+		return total;
+	}
+
+	/**
+	 * @return The number of checked nodes, index entries and relationships.
+	 */
+	public long getChecked() {
+		return checked.get();
+	}
+
+	/**
+	 * @return The number of repaired elements.
+	 */
+	public long getRepaired() {
+		return repaired.get();
+	}
+
+	/**
+	 * @return true if no issues have been found.
+	 */
+	public boolean isConsistent() {
+		return getIssueCount() == 0;
+	}
+
+	/**
+	 * @return The first issues found, at most {@link #MAX_SAMPLES}.
+	 */
+	public List<String> getSamples() {
+		synchronized (samples) {
+			return Collections.unmodifiableList(new ArrayList<String>(samples));
+		}
+	}
+
+	// ----------------------------------------------------
+
+	void addIssue(Issue issue, String description) {
+		counts.get(issue).incrementAndGet();
+		synchronized (samples) {
+			if (samples.size() < MAX_SAMPLES) {
+				samples.add(issue + ": " + description);
+			}
+		}
+	}
+
+	void addChecked(long count) {
+		checked.addAndGet(count);
+	}
+
+	void addRepaired(long count) {
+		repaired.addAndGet(count);
+	}
+
+	// ----------------------------------------------------
+
+	@Override
+	public String toString() {
+		return "ConsistencyReport[checked=" + getChecked() + ", missing=" + getCount(Issue.MISSING)
+				+ ", stale=" + getCount(Issue.STALE) + ", duplicate=" + getCount(Issue.DUPLICATE)
+				+ ", repaired=" + getRepaired() + "]";
+	}
+
+}
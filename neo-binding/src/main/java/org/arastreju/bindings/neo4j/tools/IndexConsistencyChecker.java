@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan.NodeRange;
+import org.arastreju.bindings.neo4j.index.IndexEntryCollector;
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.NeoIndex;
+import org.arastreju.bindings.neo4j.index.NodeIndexEntries;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.bindings.neo4j.tools.ConsistencyReport.Issue;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.IndexHits;
+import org.neo4j.index.lucene.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.arastreju.bindings.neo4j.index.NeoIndex.normalize;
+
+/**
+ * <p>
+ *  Checks the indexes against the graph and optionally repairs them. Two kinds of passes run in
+ *  parallel on a worker pool of its own:
+ *  <ul>
+ *      <li>Per range of node IDs, the index entries of each resource node are derived from the graph
+ *      and looked up with one query per index. Nodes with missing entries, or with statements
+ *      missing in the index of statements by context, are reported. Nodes indexed under the same
+ *      URI are reported as duplicates.</li>
+ *      <li>Per index, all entries are read and checked to belong to an existing resource node
+ *      having statements in the index's context. Other entries are reported as stale.</li>
+ *  </ul>
+ *  Repairs are written in batches, one transaction per batch. The index entries of nodes with
+ *  missing entries are replaced, stale entries are removed. Duplicates are not repaired, as they
+ *  are a problem of the graph. Stale values of single keys of an existing entry can not be
+ *  detected, a full rebuild by the {@link IndexRebuilder} removes them.
+ * </p>
+ *
+ * <p>
+ *  Memory does not depend on the size of the store: each pass holds at most one batch of pending
+ *  repairs and the report keeps counters and a bounded number of samples. Can be run as a command
+ *  on a store directory not in use:
+ *  <pre>
+ *      IndexConsistencyChecker &lt;store-directory&gt; [--repair] [--suggest-predicates=&lt;uri,...&gt;]
+ *  </pre>
+ * </p>
+ */
+public class IndexConsistencyChecker implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndexConsistencyChecker.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Maximum number of entries looked up in one query, below Lucene's default clause limit.
+	 */
+	private static final int MAX_CLAUSES = 500;
+
+	// ----------------------------------------------------
+
+	private final GraphDataConnection connection;
+
+	private final GraphDatabaseService gdbService;
+
+	private final IndexRegistry registry;
+
+	private final StatementContextIndex statementContexts;
+
+	private final int batchSize;
+
+	private final boolean repair;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor for a check without repair.
+	 * @param connection The connection to the store to be checked.
+	 */
+	public IndexConsistencyChecker(GraphDataConnection connection) {
+		this(connection, DEFAULT_BATCH_SIZE, false);
+	}
+
+	/**
+	 * Constructor.
+	 * @param connection The connection to the store to be checked.
+	 * @param batchSize The number of repairs per transaction.
+	 * @param repair Flag if inconsistencies shall be repaired.
+	 */
+	public IndexConsistencyChecker(GraphDataConnection connection, int batchSize, boolean repair) {
+		this.connection = connection;
+		this.gdbService = connection.getStore().getGdbService();
+		this.registry = connection.getIndexRegistry();
+		this.statementContexts = new StatementContextIndex(connection.getIndexManager());
+		this.batchSize = batchSize;
+		this.repair = repair;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Run the check.
+	 * @return The report.
+	 */
+	public ConsistencyReport check() {
+		final ConsistencyReport report = new ConsistencyReport();
+		final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (final NodeRange range : new NodeRangeScan(connection).ranges()) {
+			tasks.add(new Callable<Long>() {
+				public Long call() {
+					return checkNodes(range, report);
+				}
+			});
+		}
+		for (final String name : connection.getIndexManager().nodeIndexNames()) {
+			if (IndexRegistry.isGraphIndex(name)) {
+				tasks.add(new Callable<Long>() {
+					public Long call() {
+						return checkIndex(name, report);
+					}
+				});
+			}
+		}
+		tasks.add(new Callable<Long>() {
+			public Long call() {
+				return checkStatementContexts(report);
+			}
+		});
+		final ExecutorService workers = connection.createWorkers();
+		try {
+			for (Future<Long> future : workers.invokeAll(tasks)) {
+				report.addChecked(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Consistency check has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Consistency check failed.", e.getCause());
+		} finally {
+			workers.shutdown();
+		}
+		LOGGER.info("Finished consistency check: {}", report);
+		return report;
+	}
+
+	// -- GRAPH TO INDEX ----------------------------------
+
+	private long checkNodes(NodeRange range, ConsistencyReport report) {
+		final IndexEntryCollector collector = new IndexEntryCollector(connection);
+		final List<Node> pending = new ArrayList<Node>();
+		long checked = 0;
+		for (Iterator<Node> nodes = range.resourceNodes(); nodes.hasNext();) {
+			final Node node = nodes.next();
+			checked++;
+			if (!isIndexed(node, collector.collect(node), report) && repair) {
+				pending.add(node);
+				if (pending.size() >= batchSize) {
+					reindex(pending, collector, report);
+				}
+			}
+		}
+		reindex(pending, collector, report);
+		LOGGER.debug("Checked {} resource nodes in {}.", checked, range);
+		return checked;
+	}
+
+	private boolean isIndexed(Node node, NodeIndexEntries entries, ConsistencyReport report) {
+		final String uri = node.getProperty(PROPERTY_URI).toString();
+		for (String name : entries.getIndexNames()) {
+			final List<NodeIndexEntries.Entry> all = new ArrayList<NodeIndexEntries.Entry>(entries.get(name));
+			for (int start = 0; start < all.size(); start += MAX_CLAUSES) {
+				final BooleanQuery query = new BooleanQuery();
+				query.add(new TermQuery(new Term(NeoIndex.INDEX_KEY_RESOURCE_URI, normalize(uri))), BooleanClause.Occur.MUST);
+				for (NodeIndexEntries.Entry entry : all.subList(start, Math.min(start + MAX_CLAUSES, all.size()))) {
+					query.add(new TermQuery(new Term(entry.getKey(), entry.getValue())), BooleanClause.Occur.MUST);
+				}
+				final IndexHits<Node> hits = registry.forNodes(name).query(new QueryContext(query));
+				int found = 0;
+				boolean contained = false;
+				try {
+					for (Node hit : hits) {
+						found++;
+						contained |= hit.getId() == node.getId();
+					}
+				} finally {
+					hits.close();
+				}
+				if (!contained) {
+					report.addIssue(Issue.MISSING, "Resource " + uri + " (node " + node.getId() + ") in index " + name);
+					return false;
+				}
+				if (found > 1 && NeoIndex.INDEX_RESOURCES.equals(name)) {
+					report.addIssue(Issue.DUPLICATE, "Resource " + uri + " indexed for " + found + " nodes");
+				}
+			}
+		}
+		for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+			if (!statementContexts.isIndexed(rel)) {
+				report.addIssue(Issue.MISSING, "Statement " + rel.getId() + " of " + uri + " in statement contexts");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void reindex(List<Node> nodes, IndexEntryCollector collector, ConsistencyReport report) {
+		if (nodes.isEmpty()) {
+			return;
+		}
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (Node node : nodes) {
+				collector.collect(node).write(registry, node, true);
+				for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+					statementContexts.remove(rel);
+					statementContexts.index(rel);
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		report.addRepaired(nodes.size());
+		nodes.clear();
+	}
+
+	// -- INDEX TO GRAPH ----------------------------------
+
+	private long checkIndex(String name, ConsistencyReport report) {
+		final IndexEntryCollector collector = new IndexEntryCollector(registry);
+		final Index<Node> index = registry.forNodes(name);
+		final List<Node> pending = new ArrayList<Node>();
+		long checked = 0;
+		final IndexHits<Node> hits = index.query(new MatchAllDocsQuery());
+		try {
+			for (Node hit : hits) {
+				checked++;
+				final String reason = getStaleReason(hit, name, collector);
+				if (reason == null) {
+					continue;
+				}
+				report.addIssue(Issue.STALE, "Node " + hit.getId() + " in index " + name + ": " + reason);
+				if (repair) {
+					pending.add(hit);
+					if (pending.size() >= batchSize) {
+						remove(index, pending, report);
+					}
+				}
+			}
+		} finally {
+			hits.close();
+		}
+		remove(index, pending, report);
+		LOGGER.debug("Checked {} entries in index {}.", checked, name);
+		return checked;
+	}
+
+	private String getStaleReason(Node node, String name, IndexEntryCollector collector) {
+		try {
+			if (!node.hasProperty(PROPERTY_URI)) {
+				return "not a resource node";
+			} else if (!collector.collect(node).getIndexNames().contains(name)) {
+				return "no statements in this index";
+			}
+			return null;
+		} catch (NotFoundException e) {
+			return "node has been deleted";
+		}
+	}
+
+	private void remove(Index<Node> index, List<Node> nodes, ConsistencyReport report) {
+		if (nodes.isEmpty()) {
+			return;
+		}
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (Node node : nodes) {
+				index.remove(node);
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		report.addRepaired(nodes.size());
+		nodes.clear();
+	}
+
+	private long checkStatementContexts(ConsistencyReport report) {
+		final List<Relationship> pending = new ArrayList<Relationship>();
+		long checked = 0;
+		final IndexHits<Relationship> hits = statementContexts.all();
+		try {
+			for (Relationship rel : hits) {
+				checked++;
+				if (isStale(rel)) {
+					report.addIssue(Issue.STALE, "Statement " + rel.getId() + " in statement contexts");
+					if (repair) {
+						pending.add(rel);
+						if (pending.size() >= batchSize) {
+							purge(pending, report);
+						}
+					}
+				}
+			}
+		} finally {
+			hits.close();
+		}
+		purge(pending, report);
+		LOGGER.debug("Checked {} entries in statement contexts.", checked);
+		return checked;
+	}
+
+	private boolean isStale(Relationship rel) {
+		try {
+			return !rel.hasProperty(CONTEXT_URI);
+		} catch (NotFoundException e) {
+			return true;
+		}
+	}
+
+	private void purge(List<Relationship> rels, ConsistencyReport report) {
+		if (rels.isEmpty()) {
+			return;
+		}
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (Relationship rel : rels) {
+				statementContexts.purge(rel);
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		report.addRepaired(rels.size());
+		rels.clear();
+	}
+
+	// ----------------------------------------------------
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: IndexConsistencyChecker <store-directory> [--repair] [--suggest-predicates=<uri,...>]");
+			System.exit(1);
+		}
+		final boolean repair = Arrays.asList(args).contains("--repair");
+		final GraphDataStore store = new GraphDataStore(args[0], IndexRebuilder.parseSettings(args));
+		final GraphDataConnection connection = new GraphDataConnection(store);
+		try {
+			final ConsistencyReport report = new IndexConsistencyChecker(connection, DEFAULT_BATCH_SIZE, repair).check();
+			System.out.println(report);
+			for (String sample : report.getSamples()) {
+				System.out.println("  " + sample);
+			}
+		} finally {
+			connection.close();
+			store.close();
+		}
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataConnection;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan;
+import org.arastreju.bindings.neo4j.impl.NodeRangeScan.NodeRange;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.arastreju.bindings.neo4j.index.IndexEntryCollector;
+import org.arastreju.bindings.neo4j.index.IndexRegistry;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.index.IndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *  Drops and rebuilds the resource index, the statement indexes ('local' and 'context-*') and the
+ *  index of statements by context from the graph. The node ID space is split into ranges, which are
+ *  reindexed in parallel on a worker pool of its own. Each worker commits its index
+ *  entries in batches, one transaction per batch. Progress and throughput are logged per batch.
+ * </p>
+ *
+ * <p>
+ *  The rebuild can run online on the connection of an open store: the connection's index handles
+ *  are replaced, but searches return incomplete results until the rebuild is finished. Offline it
+ *  can be run as a command on a store directory not in use:
+ *  <pre>
+ *      IndexRebuilder &lt;store-directory&gt; [--suggest-predicates=&lt;uri,...&gt;] [--no-inferences]
+ *  </pre>
+ * </p>
+ */
+public class IndexRebuilder implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndexRebuilder.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 2000;
+
+	// ----------------------------------------------------
+
+	private final GraphDataConnection connection;
+
+	private final GraphDatabaseService gdbService;
+
+	private final IndexManager manager;
+
+	private final IndexRegistry registry;
+
+	private final StatementContextIndex statementContexts;
+
+	private final int batchSize;
+
+	private final boolean softInferences;
+
+	private final AtomicLong indexed = new AtomicLong();
+
+	private final AtomicInteger rangesDone = new AtomicInteger();
+
+	private long started;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param connection The connection to the store to be reindexed.
+	 */
+	public IndexRebuilder(GraphDataConnection connection) {
+		this(connection, DEFAULT_BATCH_SIZE, true);
+	}
+
+	/**
+	 * Constructor.
+	 * @param connection The connection to the store to be reindexed.
+	 * @param batchSize The number of nodes indexed per transaction.
+	 * @param softInferences Flag if soft inferences shall be indexed.
+	 */
+	public IndexRebuilder(GraphDataConnection connection, int batchSize, boolean softInferences) {
+		this.connection = connection;
+		this.gdbService = connection.getStore().getGdbService();
+		this.manager = connection.getIndexManager();
+		this.registry = connection.getIndexRegistry();
+		this.statementContexts = new StatementContextIndex(manager);
+		this.batchSize = batchSize;
+		this.softInferences = softInferences;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Drop all indexes and rebuild them.
+	 * @return The number of indexed resource nodes.
+	 */
+	public long rebuild() {
+		drop();
+		return reindex();
+	}
+
+	/**
+	 * Delete the resource index, all statement indexes and the index of statements by context.
+	 * @return The number of deleted node indexes.
+	 */
+	public int drop() {
+		int deleted = 0;
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (String name : manager.nodeIndexNames()) {
+				if (IndexRegistry.isGraphIndex(name)) {
+					manager.forNodes(name).delete();
+					deleted++;
+				}
+			}
+			statementContexts.delete();
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		registry.clear();
+		LOGGER.info("Dropped {} node indexes.", deleted);
+		return deleted;
+	}
+
+	/**
+	 * Index all resource nodes, without dropping existing entries. Afterwards the index of
+	 * statements by context is marked as complete.
+	 * @return The number of indexed resource nodes.
+	 */
+	public long reindex() {
+		final List<NodeRange> ranges = new NodeRangeScan(connection).ranges();
+		final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (final NodeRange range : ranges) {
+			tasks.add(new Callable<Long>() {
+				public Long call() {
+					return reindex(range, ranges.size());
+				}
+			});
+		}
+		indexed.set(0);
+		rangesDone.set(0);
+		started = System.currentTimeMillis();
+		long total = 0;
+		final ExecutorService workers = connection.createWorkers();
+		try {
+			for (Future<Long> future : workers.invokeAll(tasks)) {
+				total += future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Reindexing has been interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Reindexing failed.", e.getCause());
+		} finally {
+			workers.shutdown();
+		}
+		markComplete();
+		final long millis = Math.max(1, System.currentTimeMillis() - started);
+		LOGGER.info("Finished rebuilding indexes: {} resources in {} ms ({} resources/s).",
+				new Object[] { total, millis, total * 1000 / millis });
+		return total;
+	}
+
+	// ----------------------------------------------------
+
+	private long reindex(NodeRange range, int rangeCount) {
+		final IndexEntryCollector collector = createCollector();
+		final Iterator<Node> nodes = range.resourceNodes();
+		long count = 0;
+		while (nodes.hasNext()) {
+			int inBatch = 0;
+			final Transaction tx = gdbService.beginTx();
+			try {
+				while (inBatch < batchSize && nodes.hasNext()) {
+					write(nodes.next(), collector);
+					inBatch++;
+				}
+				tx.success();
+			} finally {
+				tx.finish();
+			}
+			count += inBatch;
+			report(indexed.addAndGet(inBatch), rangesDone.get(), rangeCount);
+		}
+		report(indexed.get(), rangesDone.incrementAndGet(), rangeCount);
+		return count;
+	}
+
+	private void markComplete() {
+		final Transaction tx = gdbService.beginTx();
+		try {
+			statementContexts.markComplete();
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+	}
+
+	private void write(Node node, IndexEntryCollector collector) {
+		collector.collect(node).write(registry, node, false);
+		for (Relationship rel : node.getRelationships(Direction.OUTGOING)) {
+			statementContexts.index(rel);
+		}
+	}
+
+	private IndexEntryCollector createCollector() {
+		return softInferences ? new IndexEntryCollector(connection) : new IndexEntryCollector(registry);
+	}
+
+	private void report(long resources, int ranges, int rangeCount) {
+		final long millis = Math.max(1, System.currentTimeMillis() - started);
+		LOGGER.info("Rebuilding indexes: {}/{} node ranges done, {} resources indexed ({} resources/s).",
+				new Object[] { ranges, rangeCount, resources, resources * 1000 / millis });
+	}
+
+	// ----------------------------------------------------
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: IndexRebuilder <store-directory> [--suggest-predicates=<uri,...>] [--no-inferences]");
+			System.exit(1);
+		}
+		final StoreSettings settings = parseSettings(args);
+		final boolean softInferences = !Arrays.asList(args).contains("--no-inferences");
+		final GraphDataStore store = new GraphDataStore(args[0], settings);
+		final GraphDataConnection connection = new GraphDataConnection(store);
+		try {
+			final IndexRebuilder rebuilder = new IndexRebuilder(connection, DEFAULT_BATCH_SIZE, softInferences);
+			System.out.println("Indexed resources: " + rebuilder.rebuild());
+		} finally {
+			connection.close();
+			store.close();
+		}
+	}
+
+	/**
+	 * Parse the index settings from the command line option '--suggest-predicates'.
+	 */
+	static StoreSettings parseSettings(String[] args) {
+		final StoreSettings settings = new StoreSettings();
+		for (String arg : args) {
+			if (arg.startsWith("--suggest-predicates=")) {
+				for (String predicate : arg.substring("--suggest-predicates=".length()).split(",")) {
+					if (predicate.trim().length() > 0) {
+						settings.getSuggestPredicates().add(predicate.trim());
+					}
+				}
+			}
+		}
+		return settings;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.ValueNodeAccess;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *  Sweeper removing orphan value nodes, i.e. nodes without a resource URI and without any incoming
+ *  relationship. Such nodes are left behind by older versions when removing nodes or associations.
+ *  Orphans are deleted in batches, each batch in its own transaction.
+ * </p>
+ */
+public class OrphanValueSweeper implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrphanValueSweeper.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	private final ValueNodeAccess valueNodes;
+
+	private final int batchSize;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param store The store to be swept.
+	 */
+	public OrphanValueSweeper(GraphDataStore store) {
+		this(store, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param store The store to be swept.
+	 * @param batchSize The maximum number of nodes deleted per transaction.
+	 */
+	public OrphanValueSweeper(GraphDataStore store, int batchSize) {
+		this.gdbService = store.getGdbService();
+		this.valueNodes = new ValueNodeAccess(store);
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Find and delete all orphan value nodes.
+	 * @return The number of deleted nodes.
+	 */
+	public long sweep() {
+		final long referenceNodeId = getReferenceNodeId();
+		final List<Node> batch = new ArrayList<Node>(batchSize);
+		long scanned = 0;
+		long deleted = 0;
+		for (Node node : GlobalGraphOperations.at(gdbService).getAllNodes()) {
+			scanned++;
+			if (node.getId() == referenceNodeId || !isOrphan(node)) {
+				continue;
+			}
+			batch.add(node);
+			if (batch.size() >= batchSize) {
+				deleted += delete(batch);
+				LOGGER.info("Sweeping orphan value nodes: {} nodes scanned, {} deleted.", scanned, deleted);
+			}
+		}
+		deleted += delete(batch);
+		LOGGER.info("Finished sweeping orphan value nodes: {} nodes scanned, {} deleted.", scanned, deleted);
+		return deleted;
+	}
+
+	// ----------------------------------------------------
+
+	private int delete(List<Node> batch) {
+		int deleted = 0;
+		final Transaction tx = gdbService.beginTx();
+		try {
+			for (Node node : batch) {
+				// re-check, the node may have been referenced meanwhile.
+				if (isOrphan(node)) {
+					valueNodes.delete(node);
+					deleted++;
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		batch.clear();
+		return deleted;
+	}
+
+	private boolean isOrphan(Node node) {
+		if (node.hasProperty(PROPERTY_URI) || node.hasRelationship(Direction.INCOMING)) {
+			return false;
+		} else if (node.hasRelationship(Direction.OUTGOING)) {
+			LOGGER.warn("Node without URI has outgoing relationships, will not be swept: {}", node);
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	private long getReferenceNodeId() {
+		try {
+			return gdbService.getReferenceNode().getId();
+		} catch (RuntimeException e) {
+			return -1;
+		}
+	}
+
+}
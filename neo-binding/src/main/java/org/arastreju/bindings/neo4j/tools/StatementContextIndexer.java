@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Builds the index of statements by context for relationships created before this index existed,
+ *  or before statements without context were indexed. Existing entries of a relationship are
+ *  replaced, so the indexer can be run repeatedly. Afterwards the index is marked as complete.
+ * </p>
+ */
+public class StatementContextIndexer implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StatementContextIndexer.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	private final StatementContextIndex statementContexts;
+
+	private final int batchSize;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param store The store to be indexed.
+	 */
+	public StatementContextIndexer(GraphDataStore store) {
+		this(store, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param store The store to be indexed.
+	 * @param batchSize The number of relationships indexed per transaction.
+	 */
+	public StatementContextIndexer(GraphDataStore store, int batchSize) {
+		this.gdbService = store.getGdbService();
+		this.statementContexts = new StatementContextIndex(store.getIndexManager());
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Index all statements, with or without context.
+	 * @return The number of indexed relationships.
+	 */
+	public long run() {
+		long scanned = 0;
+		long indexed = 0;
+		int inBatch = 0;
+		Transaction tx = gdbService.beginTx();
+		try {
+			for (Relationship rel : GlobalGraphOperations.at(gdbService).getAllRelationships()) {
+				scanned++;
+				if (!rel.hasProperty(PREDICATE_URI)) {
+					continue;
+				}
+				statementContexts.remove(rel);
+				statementContexts.index(rel);
+				indexed++;
+				if (++inBatch >= batchSize) {
+					tx.success();
+					tx.finish();
+					tx = gdbService.beginTx();
+					inBatch = 0;
+					LOGGER.info("Indexing statement contexts: {} relationships scanned, {} indexed.", scanned, indexed);
+				}
+			}
+			statementContexts.markComplete();
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		LOGGER.info("Finished indexing statement contexts: {} relationships scanned, {} indexed.", scanned, indexed);
+		return indexed;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.impl.StoreSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Compaction of a graph data store: removes orphan value nodes and, if the store uses shared
+ *  value nodes, merges duplicate value nodes. Can be run on an open store or as a command
+ *  on a store directory not in use by any other process:
+ *  <pre>
+ *      StoreCompactor &lt;store-directory&gt; [--share-value-nodes]
+ *  </pre>
+ * </p>
+ */
+public class StoreCompactor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StoreCompactor.class);
+
+	private final GraphDataStore store;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param store The store to be compacted.
+	 */
+	public StoreCompactor(GraphDataStore store) {
+		this.store = store;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Run the compaction.
+	 * @return The total number of deleted nodes.
+	 */
+	public long compact() {
+		long reclaimed = 0;
+		if (store.getSettings().isShareValueNodes()) {
+			reclaimed += new ValueNodeDeduplicator(store).run();
+		}
+		reclaimed += new OrphanValueSweeper(store).sweep();
+		LOGGER.info("Compaction finished, {} nodes reclaimed.", reclaimed);
+		return reclaimed;
+	}
+
+	// ----------------------------------------------------
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: StoreCompactor <store-directory> [--share-value-nodes]");
+			System.exit(1);
+		}
+		final StoreSettings settings = new StoreSettings();
+		settings.setShareValueNodes(args.length > 1 && "--share-value-nodes".equals(args[1]));
+		final GraphDataStore store = new GraphDataStore(args[0], settings);
+		try {
+			final long reclaimed = new StoreCompactor(store).compact();
+			System.out.println("Reclaimed nodes: " + reclaimed);
+		} finally {
+			store.close();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.tools;
+
+import org.arastreju.bindings.neo4j.NeoConstants;
+import org.arastreju.bindings.neo4j.impl.GraphDataStore;
+import org.arastreju.bindings.neo4j.index.StatementContextIndex;
+import org.arastreju.bindings.neo4j.index.ValueIndex;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ *  Migrates a store to shared value nodes: all value nodes with equal datatype, value and locale
+ *  are merged into one node, which is registered in the value index. Afterwards the store should
+ *  be used with {@link org.arastreju.bindings.neo4j.impl.StoreSettings#KEY_SHARE_VALUE_NODES} enabled.
+ * </p>
+ */
+public class ValueNodeDeduplicator implements NeoConstants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ValueNodeDeduplicator.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	// ----------------------------------------------------
+
+	private final GraphDatabaseService gdbService;
+
+	private final ValueIndex valueIndex;
+
+	private final StatementContextIndex statementContexts;
+
+	private final int batchSize;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 * @param store The store to be migrated.
+	 */
+	public ValueNodeDeduplicator(GraphDataStore store) {
+		this(store, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param store The store to be migrated.
+	 * @param batchSize The number of value nodes processed per transaction.
+	 */
+	public ValueNodeDeduplicator(GraphDataStore store, int batchSize) {
+		this.gdbService = store.getGdbService();
+		this.valueIndex = new ValueIndex(store.getIndexManager());
+		this.statementContexts = new StatementContextIndex(store.getIndexManager());
+		this.batchSize = batchSize;
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * Merge all duplicate value nodes.
+	 * @return The number of value nodes removed.
+	 */
+	public long run() {
+		long scanned = 0;
+		long merged = 0;
+		int inBatch = 0;
+		Transaction tx = gdbService.beginTx();
+		try {
+			for (Node node : GlobalGraphOperations.at(gdbService).getAllNodes()) {
+				if (!isValueNode(node)) {
+					continue;
+				}
+				scanned++;
+				if (merge(node)) {
+					merged++;
+				}
+				if (++inBatch >= batchSize) {
+					tx.success();
+					tx.finish();
+					tx = gdbService.beginTx();
+					inBatch = 0;
+					LOGGER.info("Deduplicating value nodes: {} scanned, {} merged.", scanned, merged);
+				}
+			}
+			tx.success();
+		} finally {
+			tx.finish();
+		}
+		LOGGER.info("Finished deduplicating value nodes: {} scanned, {} merged.", scanned, merged);
+		return merged;
+	}
+
+	// ----------------------------------------------------
+
+	private boolean merge(Node node) {
+		final String datatype = (String) node.getProperty(PROPERTY_DATATYPE);
+		final String value = (String) node.getProperty(PROPERTY_VALUE);
+		final String locale = (String) node.getProperty(PROPERTY_LOCALE, null);
+		final Node canonical = valueIndex.lookup(datatype, value, locale);
+		if (canonical == null) {
+			valueIndex.add(node);
+			return false;
+		} else if (canonical.getId() == node.getId()) {
+			return false;
+		}
+		for (Relationship rel : node.getRelationships(Direction.INCOMING)) {
+			final Relationship moved = rel.getStartNode().createRelationshipTo(canonical, rel.getType());
+			for (String key : rel.getPropertyKeys()) {
+				moved.setProperty(key, rel.getProperty(key));
+			}
+			statementContexts.remove(rel);
+			statementContexts.index(moved);
+			rel.delete();
+		}
+		if (node.hasRelationship()) {
+			LOGGER.warn("Value node {} still has relationships and will not be deleted.", node);
+			return false;
+		}
+		node.delete();
+		return true;
+	}
+
+	private boolean isValueNode(Node node) {
+		return !node.hasProperty(PROPERTY_URI) && node.hasProperty(PROPERTY_VALUE) && node.hasProperty(PROPERTY_DATATYPE);
+	}
+
+}
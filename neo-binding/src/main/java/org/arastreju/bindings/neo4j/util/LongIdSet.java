@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.util;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *  Compact hash set of primitive long IDs, e.g. node or relationship IDs. Avoids boxing and entry
+ *  objects, so millions of IDs can be tracked with a few bytes each. Only non-negative values are supported.
+ * </p>
+ */
+public class LongIdSet {
+
+	private static final long FREE = -1L;
+
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] table;
+
+	private int size;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 */
+	public LongIdSet() {
+		this(64);
+	}
+
+	/**
+	 * Constructor.
+	 * @param expectedSize The expected number of IDs.
+	 */
+	public LongIdSet(int expectedSize) {
+		int capacity = 16;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		this.table = newTable(capacity);
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param id The ID to be added.
+	 * @return true if the ID has not been contained before.
+	 */
+	public boolean add(long id) {
+		if (id < 0) {
+			throw new IllegalArgumentException("Only non-negative IDs are supported: " + id);
+		}
+		if (size + 1 > table.length * LOAD_FACTOR) {
+			rehash(table.length << 1);
+		}
+		return insert(table, id);
+	}
+
+	/**
+	 * @param id The ID.
+	 * @return true if the ID is contained.
+	 */
+	public boolean contains(long id) {
+		if (id < 0) {
+			return false;
+		}
+		final int mask = table.length - 1;
+		int pos = hash(id) & mask;
+		while (table[pos] != FREE) {
+			if (table[pos] == id) {
+				return true;
+			}
+			pos = (pos + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		table = newTable(16);
+		size = 0;
+	}
+
+	// ----------------------------------------------------
+
+	private boolean insert(long[] target, long id) {
+		final int mask = target.length - 1;
+		int pos = hash(id) & mask;
+		while (target[pos] != FREE) {
+			if (target[pos] == id) {
+				return false;
+			}
+			pos = (pos + 1) & mask;
+		}
+		target[pos] = id;
+		size++;
+		return true;
+	}
+
+	private void rehash(int capacity) {
+		final long[] old = table;
+		table = newTable(capacity);
+		size = 0;
+		for (long id : old) {
+			if (id != FREE) {
+				insert(table, id);
+			}
+		}
+	}
+
+	private static long[] newTable(int capacity) {
+		final long[] table = new long[capacity];
+		Arrays.fill(table, FREE);
+		return table;
+	}
+
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
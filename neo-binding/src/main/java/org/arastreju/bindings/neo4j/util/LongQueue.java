@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *  FIFO queue of primitive long IDs, backed by a growing ring buffer. Avoids boxing and
+ *  list entries, so large breadth first traversals can be queued with 8 bytes per ID.
+ * </p>
+ */
+public class LongQueue {
+
+	private long[] elements;
+
+	private int head;
+
+	private int size;
+
+	// ----------------------------------------------------
+
+	/**
+	 * Constructor.
+	 */
+	public LongQueue() {
+		this(16);
+	}
+
+	/**
+	 * Constructor.
+	 * @param expectedSize The expected number of queued IDs.
+	 */
+	public LongQueue(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize) {
+			capacity <<= 1;
+		}
+		this.elements = new long[capacity];
+	}
+
+	// ----------------------------------------------------
+
+	/**
+	 * @param id The ID to be appended to the tail.
+	 */
+	public void add(long id) {
+		if (size == elements.length) {
+			grow();
+		}
+		elements[(head + size) & (elements.length - 1)] = id;
+		size++;
+	}
+
+	/**
+	 * @return The ID at the head, which is removed from the queue.
+	 * @throws NoSuchElementException if the queue is empty.
+	 */
+	public long removeFirst() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		final long id = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return id;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	// ----------------------------------------------------
+
+	private void grow() {
+		final long[] grown = new long[elements.length << 1];
+		final int firstPart = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, grown, 0, firstPart);
+		System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+		elements = grown;
+		head = 0;
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.impl;
+
+import org.arastreju.bindings.neo4j.extensions.NeoAssociationKeeper;
+import org.arastreju.sge.model.SimpleResourceID;
+import org.arastreju.sge.naming.QualifiedName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>
+ *  Test cases for {@link KeeperRegister}.
+ * </p>
+ */
+public class KeeperRegisterTest {
+
+	@Test
+	public void testEvictionOfUnreferencedKeepers() throws Exception {
+		final KeeperRegister register = new KeeperRegister(2);
+		final NeoAssociationKeeper held = keeper("held");
+		register.put(qn("held"), held);
+		for (int i = 0; i < 10; i++) {
+			register.put(qn("k" + i), keeper("k" + i));
+		}
+		awaitSize(register, 3);
+
+		assertEquals(3, register.size());
+		assertSame(held, register.get(qn("held")));
+		assertNotNull(register.get(qn("k8")));
+		assertNotNull(register.get(qn("k9")));
+		assertNull(register.get(qn("k0")));
+	}
+
+	@Test
+	public void testReadKeeperGetsSecondChance() throws Exception {
+		final KeeperRegister register = new KeeperRegister(2);
+		register.put(qn("a"), keeper("a"));
+		register.put(qn("b"), keeper("b"));
+		assertNotNull(register.get(qn("a")));
+		register.put(qn("c"), keeper("c"));
+		awaitSize(register, 2);
+
+		assertEquals(2, register.size());
+		assertNotNull(register.get(qn("a")));
+		assertNull(register.get(qn("b")));
+		assertNotNull(register.get(qn("c")));
+	}
+
+	@Test
+	public void testNonEvictingRegister() throws Exception {
+		final KeeperRegister register = new KeeperRegister(false);
+		for (int i = 0; i < 10; i++) {
+			register.put(qn("k" + i), keeper("k" + i));
+		}
+		awaitSize(register, 0);
+
+		assertEquals(10, register.size());
+		assertNotNull(register.get(qn("k0")));
+	}
+
+	// ----------------------------------------------------
+
+	private void awaitSize(KeeperRegister register, int size) throws InterruptedException {
+		for (int i = 0; i < 50 && register.size() > size; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+	}
+
+	private QualifiedName qn(String name) {
+		return new QualifiedName("http://q#", name);
+	}
+
+	private NeoAssociationKeeper keeper(String name) {
+		return new NeoAssociationKeeper(new SimpleResourceID(qn(name)), null);
+	}
+
+}
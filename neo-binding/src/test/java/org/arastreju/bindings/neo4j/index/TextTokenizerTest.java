@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for {@link TextTokenizer}.
+ * </p>
+ */
+public class TextTokenizerTest {
+
+	@Test
+	public void testTokenize() {
+		assertEquals(Arrays.asList("red", "sports", "car", "built", "1972"),
+				new ArrayList<String>(TextTokenizer.tokenize("  Red sports-car, built\t1972?")));
+		assertEquals(Arrays.asList("gr\u00fcn", "rot"),
+				new ArrayList<String>(TextTokenizer.tokenize("Gr\u00fcn/rot; GR\u00dcN")));
+	}
+
+	@Test
+	public void testTokenizeEmpty() {
+		assertTrue(TextTokenizer.tokenize(null).isEmpty());
+		assertTrue(TextTokenizer.tokenize("").isEmpty());
+		assertTrue(TextTokenizer.tokenize(" ,.- ").isEmpty());
+	}
+
+	@Test
+	public void testLongTokensAreSkipped() {
+		final char[] chars = new char[TextTokenizer.MAX_TOKEN_LENGTH + 1];
+		Arrays.fill(chars, 'a');
+		assertEquals(Collections.singletonList("short"),
+				new ArrayList<String>(TextTokenizer.tokenize(new String(chars) + " short")));
+	}
+
+	@Test
+	public void testEdgeNGrams() {
+		assertEquals(Arrays.asList("c", "ca", "car", "b", "bi", "bik", "bike"),
+				new ArrayList<String>(TextTokenizer.edgeNGrams("Car bike")));
+		final char[] chars = new char[TextTokenizer.MAX_GRAM_LENGTH + 5];
+		Arrays.fill(chars, 'x');
+		assertEquals(TextTokenizer.MAX_GRAM_LENGTH, TextTokenizer.edgeNGrams(new String(chars)).size());
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.io;
+
+import org.arastreju.sge.model.ElementaryDataType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for {@link NQuadsParser}.
+ * </p>
+ */
+public class NQuadsParserTest {
+
+	private final NQuadsParser parser = new NQuadsParser();
+
+	@Test
+	public void testReference() {
+		final ParsedStatement stmt = parser.parse("<http://a.org/s> <http://a.org/p> <http://a.org/o> .");
+		assertEquals("http://a.org/s", stmt.getSubject());
+		assertEquals("http://a.org/p", stmt.getPredicate());
+		assertEquals("http://a.org/o", stmt.getObject());
+		assertFalse(stmt.isLiteral());
+		assertNull(stmt.getContext());
+	}
+
+	@Test
+	public void testLiterals() {
+		ParsedStatement stmt = parser.parse("<http://a.org/s> <http://a.org/p> \"a \\\"b\\\"\\n\\u00e4\"@de-DE <http://a.org/c> .");
+		assertTrue(stmt.isLiteral());
+		assertEquals("a \"b\"\n\u00e4", stmt.getObject());
+		assertEquals("STRING", stmt.getDatatype());
+		assertEquals("de_DE", stmt.getLocale());
+		assertEquals("http://a.org/c", stmt.getContext());
+
+		stmt = parser.parse("_:x <http://a.org/p> \"42\"^^<http://www.w3.org/2001/XMLSchema#integer> .");
+		assertEquals(NQuadsParser.BLANK_NODE_NAMESPACE + "x", stmt.getSubject());
+		assertEquals("42", stmt.getObject());
+		assertEquals("INTEGER", stmt.getDatatype());
+		assertNull(stmt.getLocale());
+	}
+
+	@Test
+	public void testArastrejuDatatypes() {
+		for (ElementaryDataType type : ElementaryDataType.values()) {
+			final String line = "<http://a.org/s> <http://a.org/p> \"x\"^^<" + RdfDatatypes.toIri(type.name()) + "> .";
+			assertEquals(type.name(), parser.parse(line).getDatatype());
+		}
+
+		final ParsedStatement stmt = parser.parse("<http://a.org/s> <http://a.org/p> \"x\"^^<"
+				+ RdfDatatypes.DATATYPE_NAMESPACE + "NO_SUCH_TYPE> .");
+		assertEquals("STRING", stmt.getDatatype());
+	}
+
+	@Test
+	public void testEmptyLines() {
+		assertNull(parser.parse(""));
+		assertNull(parser.parse("  # comment"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalid() {
+		parser.parse("<http://a.org/s> <http://a.org/p> \"unterminated .");
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for {@link LongIdSet}.
+ * </p>
+ */
+public class LongIdSetTest {
+
+	@Test
+	public void testAddAndContains() {
+		final LongIdSet set = new LongIdSet();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(0));
+		assertTrue(set.add(42));
+		assertFalse(set.add(42));
+
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(42));
+		assertFalse(set.contains(43));
+		assertFalse(set.contains(-1));
+		assertEquals(2, set.size());
+	}
+
+	@Test
+	public void testGrowth() {
+		final LongIdSet set = new LongIdSet(4);
+		for (long id = 0; id < 100000; id += 3) {
+			assertTrue(set.add(id));
+		}
+		assertEquals(33334, set.size());
+		for (long id = 0; id < 100000; id++) {
+			assertEquals(id % 3 == 0, set.contains(id));
+		}
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeId() {
+		new LongIdSet().add(-5);
+	}
+
+}
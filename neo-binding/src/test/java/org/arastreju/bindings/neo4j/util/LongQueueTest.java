@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012 lichtflut Forschungs- und Entwicklungsgesellschaft mbH
+ *
+ * The Arastreju-Neo4j binding is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.arastreju.bindings.neo4j.util;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *  Test cases for {@link LongQueue}.
+ * </p>
+ */
+public class LongQueueTest {
+
+	@Test
+	public void testFifoOrder() {
+		final LongQueue queue = new LongQueue();
+		assertTrue(queue.isEmpty());
+		queue.add(3);
+		queue.add(1);
+		queue.add(2);
+		assertEquals(3, queue.size());
+		assertEquals(3, queue.removeFirst());
+		assertEquals(1, queue.removeFirst());
+		assertEquals(2, queue.removeFirst());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testGrowthWhileWrapped() {
+		final LongQueue queue = new LongQueue(4);
+		long next = 0;
+		long expected = 0;
+		// interleave adds and removes, so the ring buffer wraps before it grows
+		for (int round = 0; round < 1000; round++) {
+			queue.add(next++);
+			queue.add(next++);
+			assertEquals(expected++, queue.removeFirst());
+		}
+		assertEquals(1000, queue.size());
+		while (!queue.isEmpty()) {
+			assertEquals(expected++, queue.removeFirst());
+		}
+		assertEquals(next, expected);
+		assertFalse(queue.size() > 0);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testRemoveFromEmpty() {
+		new LongQueue().removeFirst();
+	}
+
+}